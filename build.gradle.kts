@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.4.5"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "com.capaciti"
@@ -13,12 +14,33 @@ java {
 	}
 }
 
+// Fast-startup profile (-PfastStartup): Spring AOT processing generates the bean
+// definitions at build time, and the jar is run with -Dspring.aot.enabled=true.
+// Conditions such as morse.cache.enabled are then fixed when the jar is built.
+val fastStartup = providers.gradleProperty("fastStartup").isPresent
+if (fastStartup) {
+	apply(plugin = "org.springframework.boot.aot")
+}
+
+// HTTP load tests and startup measurements against the whole application; see
+// MorseLoadTest and StartupTimer
+val loadTest by sourceSets.creating {
+	compileClasspath += sourceSets.main.get().output
+	runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 repositories {
 	mavenCentral()
 }
 
 dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("org.springframework.boot:spring-boot-starter-websocket")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
@@ -26,3 +48,83 @@ dependencies {
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
+
+// Bulk file translation without Spring: ./gradlew translate --args="encode in.txt out.txt"
+tasks.register<JavaExec>("translate") {
+	group = "application"
+	description = "Translates a file with the memory-mapped command-line mode"
+	classpath = sourceSets["main"].runtimeClasspath
+	mainClass = "com.capaciti.morse.MorseCli"
+}
+
+// Open-model HTTP load test: ./gradlew loadTest --args="--rate=500 --duration=60"
+tasks.register<JavaExec>("loadTest") {
+	group = "verification"
+	description = "Starts the application on a random port and reports latency percentiles under a fixed request rate"
+	classpath = loadTest.runtimeClasspath
+	mainClass = "com.capaciti.morse.MorseLoadTest"
+}
+
+// Class data sharing: ./gradlew [-PfastStartup] cdsArchive startupReport
+// extractBootJar unpacks the boot jar into build/fast-startup, cdsArchive and
+// cdsArchiveGui record the classes loaded by one start of the server and of the GUI,
+// and startupReport times the first request with and without those archives.
+val fastStartupDir = layout.buildDirectory.dir("fast-startup")
+val fastStartupJava = javaToolchains.launcherFor(java.toolchain)
+val fastStartupJar = tasks.bootJar.flatMap { it.archiveFileName }
+val springAotArgs = if (fastStartup) listOf("-Dspring.aot.enabled=true") else emptyList()
+
+val extractBootJar by tasks.registering(Exec::class) {
+	group = "fast startup"
+	description = "Extracts the boot jar into a layout that class data sharing can archive"
+	dependsOn(tasks.bootJar)
+	doFirst {
+		executable = fastStartupJava.get().executablePath.asFile.absolutePath
+		args("-Djarmode=tools", "-jar", tasks.bootJar.get().archiveFile.get().asFile.absolutePath,
+			"extract", "--force", "--destination", fastStartupDir.get().asFile.absolutePath)
+	}
+}
+
+tasks.register<Exec>("cdsArchive") {
+	group = "fast startup"
+	description = "Trains build/fast-startup/morse.jsa by starting the server until its context is refreshed"
+	dependsOn(extractBootJar)
+	doFirst {
+		workingDir = fastStartupDir.get().asFile
+		executable = fastStartupJava.get().executablePath.asFile.absolutePath
+		args(listOf("-XX:ArchiveClassesAtExit=morse.jsa", "-Dspring.context.exit=onRefresh")
+			+ springAotArgs + listOf("-jar", fastStartupJar.get()))
+	}
+}
+
+tasks.register<Exec>("cdsArchiveGui") {
+	group = "fast startup"
+	description = "Trains build/fast-startup/morse-gui.jsa by opening the GUI once; needs a display"
+	dependsOn(extractBootJar)
+	doFirst {
+		workingDir = fastStartupDir.get().asFile
+		executable = fastStartupJava.get().executablePath.asFile.absolutePath
+		args("-XX:ArchiveClassesAtExit=morse-gui.jsa", "-Dmorse.startup.exit=true",
+			"-cp", fastStartupJar.get(), "com.capaciti.morse.MainFrame")
+	}
+}
+
+tasks.register<JavaExec>("startupReport") {
+	group = "fast startup"
+	description = "Measures time to first request of the server and the GUI, with and without CDS archives"
+	dependsOn(extractBootJar)
+	classpath = loadTest.runtimeClasspath
+	mainClass = "com.capaciti.morse.StartupTimer"
+	doFirst {
+		args("--java=" + fastStartupJava.get().executablePath.asFile.absolutePath,
+			"--jar=" + fastStartupDir.get().file(fastStartupJar.get()).asFile.absolutePath,
+			"--aot=$fastStartup",
+			"--output=" + layout.buildDirectory.file("reports/startup/startup.json").get().asFile.absolutePath)
+	}
+}
+
+jmh {
+	// Report allocation rate alongside timings; compare runs with ./gradlew jmh before deploying engine changes
+	profilers = listOf("gc")
+	resultFormat = "JSON"
+}
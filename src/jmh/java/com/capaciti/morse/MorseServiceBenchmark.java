@@ -0,0 +1,151 @@
+package com.capaciti.morse;
+
+import com.capaciti.morse.service.AudioSettings;
+import com.capaciti.morse.service.MorseAlphabet;
+import com.capaciti.morse.service.MorseService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the {@link MorseService} engines. Run with {@code ./gradlew jmh};
+ * the GC profiler is enabled in the build, so results include allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MorseServiceBenchmark {
+
+    /**
+     * Character mixes of the generated input.
+     */
+    public enum Mix {
+        /** Letters and digits with occasional spaces. */
+        VALID("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 "),
+        /** As {@link #VALID}, with characters that have no Morse symbol. */
+        UNKNOWN("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 #%&*_~"),
+        /** Short words, so a large share of the output is word breaks. */
+        WORD_BREAKS("ET  ");
+
+        private final String alphabet;
+
+        Mix(String alphabet) {
+            this.alphabet = alphabet;
+        }
+
+        String text(int length) {
+            Random random = new Random(42);
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            return sb.toString();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TextState {
+
+        @Param({"10", "1024", "1048576"})
+        int size;
+
+        @Param
+        Mix mix;
+
+        final MorseService morseService = new MorseService();
+        String text;
+        String morse;
+
+        @Setup
+        public void setUp() {
+            text = mix.text(size);
+            morse = morseService.encode(text);
+        }
+    }
+
+    /**
+     * Audio grows by tens of kilobytes per character, so it is measured on smaller inputs.
+     */
+    @State(Scope.Benchmark)
+    public static class AudioState {
+
+        @Param({"10", "1024"})
+        int audioSize;
+
+        @Param
+        Mix audioMix;
+
+        final MorseService morseService = new MorseService();
+        String text;
+
+        @Setup
+        public void setUp() {
+            text = audioMix.text(audioSize);
+        }
+    }
+
+    /**
+     * Sizes around the parallel threshold, to check that splitting pays off above it.
+     */
+    @State(Scope.Benchmark)
+    public static class ParallelState {
+
+        @Param({"32768", "131072", "524288", "4194304"})
+        int parallelSize;
+
+        final MorseService morseService = new MorseService();
+        String text;
+        String morse;
+
+        @Setup
+        public void setUp() {
+            text = Mix.VALID.text(parallelSize);
+            morse = morseService.encode(text);
+        }
+    }
+
+    @Benchmark
+    public String encode(TextState state) {
+        return state.morseService.encode(state.text);
+    }
+
+    @Benchmark
+    public String decode(TextState state) {
+        return state.morseService.decode(state.morse);
+    }
+
+    @Benchmark
+    public byte[] generateMorseAudio(AudioState state) {
+        return state.morseService.generateMorseAudio(state.text);
+    }
+
+    @Benchmark
+    public void writeMorseAudio(AudioState state) throws IOException {
+        state.morseService.writeMorseAudio(state.text, AudioSettings.DEFAULT, OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public String encodeSequential(ParallelState state) {
+        return state.morseService.encode(state.text, MorseAlphabet.defaultAlphabet());
+    }
+
+    @Benchmark
+    public String encodeParallel(ParallelState state) {
+        return state.morseService.encodeParallel(state.text, MorseAlphabet.defaultAlphabet());
+    }
+
+    @Benchmark
+    public String decodeSequential(ParallelState state) {
+        return state.morseService.decode(state.morse, MorseAlphabet.defaultAlphabet());
+    }
+
+    @Benchmark
+    public String decodeParallel(ParallelState state) {
+        return state.morseService.decodeParallel(state.morse, MorseAlphabet.defaultAlphabet());
+    }
+}
@@ -0,0 +1,98 @@
+package com.capaciti.morse;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent histogram of latencies in microseconds, with log-linear buckets.
+ * <p>
+ * Values below 128 µs are counted exactly; above that each power of two is split into 64
+ * buckets, so a reported percentile is within 1.6% of the true value up to an hour.
+ * Recording is a single atomic increment, so the load generator's own threads do not
+ * queue behind each other and distort what is being measured.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 64;
+    private static final int MAX_SHIFT = 26; // 2^32 µs, a little over an hour
+
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKETS * (MAX_SHIFT + 1) + 2 * SUB_BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one latency; longer values are counted in the last bucket.
+     *
+     * @param micros the latency in microseconds
+     */
+    void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(index(value));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Adds another histogram's values to this one.
+     *
+     * @param other the histogram to merge in
+     */
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /** @return the number of recorded values */
+    long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /** @return the largest recorded value in microseconds, exactly */
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below which the given fraction of recorded values fall.
+     *
+     * @param quantile between 0 and 1, such as 0.99
+     * @return the value in microseconds, or 0 if nothing was recorded
+     */
+    long percentile(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(midpoint(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    private static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Math.min(63 - Long.numberOfLeadingZeros(value) - 6, MAX_SHIFT);
+        long sub = Math.min(value >>> shift, 2 * SUB_BUCKETS - 1);
+        return SUB_BUCKETS * shift + (int) sub;
+    }
+
+    private static long midpoint(int index) {
+        int shift = Math.max(0, index / SUB_BUCKETS - 1);
+        long lower = (long) (index - SUB_BUCKETS * shift) << shift;
+        return lower + ((1L << shift) - 1) / 2;
+    }
+}
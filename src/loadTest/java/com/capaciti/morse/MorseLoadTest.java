@@ -0,0 +1,398 @@
+package com.capaciti.morse;
+
+import com.capaciti.morse.service.MorseService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * MorseLoadTest drives the whole HTTP stack of {@code MorseController} at a fixed arrival
+ * rate and reports latency percentiles, throughput and errors as JSON.
+ * <p>
+ * The application is started in-process on a random local port. Requests are issued on
+ * an open model: request {@code i} is due at {@code start + i / rate} whatever happened to
+ * earlier ones, and each runs on its own virtual thread, so a slow server meets a growing
+ * queue instead of a politely waiting client. Latency is measured from the time a request
+ * was due, not from when it was sent, which corrects for coordinated omission; the
+ * uncorrected service time is reported alongside for comparison.
+ * <p>
+ * Usage: {@code ./gradlew loadTest --args="--rate=500 --duration=30"}. Options, with defaults:
+ * <ul>
+ * <li>{@code --rate=200} requests per second</li>
+ * <li>{@code --duration=30} measured seconds, after {@code --warmup=10} unmeasured ones</li>
+ * <li>{@code --mix=encode:6,decode:3,sound:1} relative weights of the endpoints</li>
+ * <li>{@code --text-length=50} characters per request, from {@code --distinct-texts=1000} inputs</li>
+ * <li>{@code --timeout=30} seconds before a request counts as an error</li>
+ * <li>{@code --output=build/reports/loadtest/results.json}</li>
+ * </ul>
+ * Any other {@code --name=value} is passed to the application, such as
+ * {@code --morse.cache.enabled=false}. Admission control is off unless
+ * {@code --morse.admission.enabled=true} is given, since all traffic comes from one address.
+ */
+public final class MorseLoadTest {
+
+    private static final String USAGE = "Usage: MorseLoadTest [--rate=<per second>] [--duration=<s>] [--warmup=<s>]"
+            + " [--mix=encode:<w>,decode:<w>,sound:<w>] [--text-length=<n>] [--distinct-texts=<n>]"
+            + " [--timeout=<s>] [--output=<file>] [--<application property>=<value>]";
+
+    private static final String TEXT_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789     ";
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    /**
+     * The endpoints under test.
+     */
+    enum Endpoint {
+        ENCODE, DECODE, SOUND;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private double rate = 200;
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration warmup = Duration.ofSeconds(10);
+    private final Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+    private int textLength = 50;
+    private int distinctTexts = 1000;
+    private Duration timeout = Duration.ofSeconds(30);
+    private Path output = Path.of("build", "reports", "loadtest", "results.json");
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder schedulerLagMicros = new LongAdder();
+
+    private MorseLoadTest() {
+        mix.put(Endpoint.ENCODE, 6);
+        mix.put(Endpoint.DECODE, 3);
+        mix.put(Endpoint.SOUND, 1);
+        applicationArgs.add("--server.port=0");
+        applicationArgs.add("--morse.admission.enabled=false");
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        MorseLoadTest loadTest = new MorseLoadTest();
+        try {
+            loadTest.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        loadTest.run();
+    }
+
+    private void parse(String[] args) {
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+                case "rate" -> rate = Double.parseDouble(value);
+                case "duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "mix" -> parseMix(value);
+                case "text-length" -> textLength = Integer.parseInt(value);
+                case "distinct-texts" -> distinctTexts = Integer.parseInt(value);
+                case "timeout" -> timeout = Duration.ofSeconds(Long.parseLong(value));
+                case "output" -> output = Path.of(value);
+                default -> applicationArgs.add(arg);
+            }
+        }
+        if (rate <= 0 || duration.isZero() || duration.isNegative() || warmup.isNegative()
+                || textLength < 1 || distinctTexts < 1 || timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("Rate, duration, text length, distinct texts and timeout must be positive");
+        }
+    }
+
+    private void parseMix(String value) {
+        mix.clear();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like encode:6, was " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative, was " + entry);
+            }
+            mix.put(Endpoint.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one endpoint needs a positive weight");
+        }
+    }
+
+    private void run() throws Exception {
+        SpringApplication application = new SpringApplication(MorseApplication.class);
+        application.setBannerMode(Banner.Mode.OFF);
+        try (ConfigurableApplicationContext context = application.run(applicationArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.err.printf("Application started on port %d; %.0f requests/s for %d s after %d s of warmup%n",
+                    port, rate, duration.toSeconds(), warmup.toSeconds());
+            Instant started = Instant.now();
+            drive(requests(URI.create("http://localhost:" + port + "/api/morse/")));
+            writeReport(started);
+        }
+    }
+
+    /**
+     * Builds the request pool: for each endpoint, one GET per distinct text.
+     */
+    private Map<Endpoint, List<HttpRequest>> requests(URI base) {
+        MorseService morseService = new MorseService();
+        Random random = new Random(42);
+        Map<Endpoint, List<HttpRequest>> requests = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            requests.put(endpoint, new ArrayList<>(distinctTexts));
+        }
+        for (int i = 0; i < distinctTexts; i++) {
+            StringBuilder text = new StringBuilder(textLength);
+            for (int j = 0; j < textLength; j++) {
+                text.append(TEXT_ALPHABET.charAt(random.nextInt(TEXT_ALPHABET.length())));
+            }
+            String plain = text.toString().trim().isEmpty() ? "SOS" : text.toString();
+            requests.get(Endpoint.ENCODE).add(get(base, "encode?text=" + encode(plain)));
+            requests.get(Endpoint.DECODE).add(get(base, "decode?code=" + encode(morseService.encode(plain))));
+            requests.get(Endpoint.SOUND).add(get(base, "sound?text=" + encode(plain)));
+        }
+        return requests;
+    }
+
+    private HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(timeout).GET().build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Issues requests on schedule until warmup and measurement are over, then waits for
+     * the last ones to finish.
+     */
+    private void drive(Map<Endpoint, List<HttpRequest>> requests) throws InterruptedException {
+        Endpoint[] weighted = mix.entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(Endpoint[]::new);
+        Random random = new Random(7);
+        double intervalNanos = 1e9 / rate;
+        long warmupNanos = warmup.toNanos();
+        long totalNanos = warmupNanos + duration.toNanos();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(timeout)
+                     .build()) {
+            long start = System.nanoTime();
+            for (long i = 0; ; i++) {
+                long offset = (long) (i * intervalNanos);
+                if (offset >= totalNanos) {
+                    break;
+                }
+                long due = start + offset;
+                long lag = parkUntil(due);
+                boolean measured = offset >= warmupNanos;
+                if (measured) {
+                    schedulerLagMicros.add(lag / 1000);
+                }
+                Endpoint endpoint = weighted[random.nextInt(weighted.length)];
+                List<HttpRequest> pool = requests.get(endpoint);
+                HttpRequest request = pool.get(random.nextInt(pool.size()));
+                clients.execute(() -> send(http, endpoint, request, due, measured));
+            }
+            clients.shutdown();
+            if (!clients.awaitTermination(timeout.toSeconds() + 10, TimeUnit.SECONDS)) {
+                System.err.println("Some requests were still running when the report was written");
+            }
+        }
+    }
+
+    /**
+     * Parks until the given {@link System#nanoTime()} and returns how late it woke up.
+     */
+    private static long parkUntil(long due) {
+        long now;
+        while ((now = System.nanoTime()) < due) {
+            LockSupport.parkNanos(due - now);
+        }
+        return now - due;
+    }
+
+    private void send(HttpClient http, Endpoint endpoint, HttpRequest request, long due, boolean measured) {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long sent = System.nanoTime();
+        String outcome;
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            outcome = Integer.toString(response.statusCode());
+        } catch (IOException e) {
+            outcome = e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "Interrupted";
+        } finally {
+            inFlight.decrementAndGet();
+        }
+        long done = System.nanoTime();
+        if (measured) {
+            stats.get(endpoint).record(outcome, (done - due) / 1000, (done - sent) / 1000);
+        }
+    }
+
+    private void writeReport(Instant started) throws IOException {
+        double seconds = duration.toNanos() / 1e9;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        Stats total = new Stats();
+        for (Map.Entry<Endpoint, Stats> entry : stats.entrySet()) {
+            if (mix.getOrDefault(entry.getKey(), 0) > 0) {
+                endpoints.put(entry.getKey().key(), entry.getValue().report(seconds));
+                total.add(entry.getValue());
+            }
+        }
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("ratePerSecond", rate);
+        settings.put("durationSeconds", duration.toSeconds());
+        settings.put("warmupSeconds", warmup.toSeconds());
+        settings.put("mix", mixReport());
+        settings.put("textLength", textLength);
+        settings.put("distinctTexts", distinctTexts);
+        settings.put("timeoutSeconds", timeout.toSeconds());
+        settings.put("applicationArgs", applicationArgs);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("started", started.toString());
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("settings", settings);
+        report.put("total", total.report(seconds));
+        report.put("endpoints", endpoints);
+        report.put("peakInFlight", peakInFlight.get());
+        long scheduled = total.latency.count();
+        report.put("meanSchedulerLagMicros", scheduled == 0 ? 0 : schedulerLagMicros.sum() / scheduled);
+
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+
+        System.err.printf("%d requests, %.1f/s, %.2f%% errors; latency p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms%n",
+                scheduled, scheduled / seconds, 100.0 * total.errors() / Math.max(1, scheduled),
+                total.latency.percentile(0.5) / 1e3, total.latency.percentile(0.99) / 1e3,
+                total.latency.percentile(0.999) / 1e3);
+        System.err.println("Report written to " + output.toAbsolutePath());
+    }
+
+    private Map<String, Integer> mixReport() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((endpoint, weight) -> weights.put(endpoint.key(), weight));
+        return weights;
+    }
+
+    /**
+     * Measurements of one endpoint, recorded concurrently by the client threads.
+     */
+    private static final class Stats {
+
+        /** From the time the request was due, corrected for coordinated omission. */
+        final LatencyHistogram latency = new LatencyHistogram();
+        /** From the time the request was actually sent. */
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        /** Responses by status code, and failures by exception. */
+        final ConcurrentMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        void record(String outcome, long latencyMicros, long serviceMicros) {
+            latency.record(latencyMicros);
+            serviceTime.record(serviceMicros);
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        }
+
+        /** Folds another endpoint's outcomes in; histograms are merged bucket by bucket. */
+        void add(Stats other) {
+            latency.add(other.latency);
+            serviceTime.add(other.serviceTime);
+            other.outcomes.forEach((outcome, count) ->
+                    outcomes.computeIfAbsent(outcome, key -> new LongAdder()).add(count.sum()));
+        }
+
+        /** Anything but a 2xx status, including failures without a response, is an error. */
+        long errors() {
+            long errors = 0;
+            for (Map.Entry<String, LongAdder> entry : outcomes.entrySet()) {
+                boolean success = entry.getKey().length() == 3 && entry.getKey().charAt(0) == '2';
+                if (!success) {
+                    errors += entry.getValue().sum();
+                }
+            }
+            return errors;
+        }
+
+        Map<String, Object> report(double seconds) {
+            long count = latency.count();
+            long errors = errors();
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("requests", count);
+            report.put("throughputPerSecond", (count - errors) / seconds);
+            report.put("errors", errors);
+            report.put("errorRate", count == 0 ? 0.0 : (double) errors / count);
+            Map<String, Long> byOutcome = new TreeMap<>();
+            outcomes.forEach((outcome, n) -> byOutcome.put(outcome, n.sum()));
+            report.put("outcomes", byOutcome);
+            report.put("latencyMillis", percentiles(latency));
+            report.put("serviceTimeMillis", percentiles(serviceTime));
+            return report;
+        }
+
+        private static Map<String, Double> percentiles(LatencyHistogram histogram) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                values.put(PERCENTILE_NAMES[i], histogram.percentile(PERCENTILES[i]) / 1e3);
+            }
+            values.put("max", histogram.max() / 1e3);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.capaciti.morse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StartupTimer measures time to first request of the server and of the Swing GUI, each
+ * started in a fresh JVM from the extracted boot jar, with and without the class data
+ * sharing archives trained by the {@code cdsArchive} tasks.
+ * <p>
+ * The clock runs from launching the process until the server answers its first
+ * {@code /api/morse/encode} request, or until the GUI has shown its first translation
+ * (see {@link MainFrame#STARTUP_CHECK_PROPERTY}). Each variant is run several times and
+ * the median, fastest and slowest runs are reported, on the console and as JSON. The GUI
+ * is skipped on headless machines.
+ * <p>
+ * Usage: {@code StartupTimer --java=<java executable> --jar=<extracted boot jar>
+ * [--runs=5] [--aot=true] [--output=build/reports/startup/startup.json]}. Archives are
+ * looked up next to the jar as {@code morse.jsa} and {@code morse-gui.jsa}.
+ */
+public final class StartupTimer {
+
+    private static final String USAGE = "Usage: StartupTimer --java=<java executable> --jar=<extracted boot jar>"
+            + " [--runs=<n>] [--aot=<true|false>] [--output=<file>]";
+
+    static final String SERVER_ARCHIVE = "morse.jsa";
+    static final String GUI_ARCHIVE = "morse-gui.jsa";
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_MILLIS = 5;
+
+    private String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    private Path jar;
+    private int runs = 5;
+    private boolean aot;
+    private Path output = Path.of("build", "reports", "startup", "startup.json");
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(100))
+            .build();
+
+    private StartupTimer() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupTimer timer = new StartupTimer();
+        try {
+            timer.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        timer.run();
+    }
+
+    private void parse(String[] args) {
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = equals < 0 ? arg : arg.substring(0, equals);
+            String value = equals < 0 ? "" : arg.substring(equals + 1);
+            switch (name) {
+                case "--java" -> java = value;
+                case "--jar" -> jar = Path.of(value);
+                case "--runs" -> runs = Integer.parseInt(value);
+                case "--aot" -> aot = Boolean.parseBoolean(value);
+                case "--output" -> output = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (jar == null || !Files.isRegularFile(jar) || runs < 1) {
+            throw new IllegalArgumentException("--jar must name the extracted boot jar and --runs must be positive");
+        }
+    }
+
+    private void run() throws Exception {
+        Map<String, Object> variants = new LinkedHashMap<>();
+        Path server = jar.resolveSibling(SERVER_ARCHIVE);
+        variants.put("server", measure(this::serverRun, List.of()));
+        if (Files.isRegularFile(server)) {
+            variants.put("serverCds", measure(this::serverRun, List.of("-XX:SharedArchiveFile=" + server)));
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println("No display; skipping the GUI");
+        } else {
+            Path gui = jar.resolveSibling(GUI_ARCHIVE);
+            variants.put("gui", measure(this::guiRun, List.of()));
+            if (Files.isRegularFile(gui)) {
+                variants.put("guiCds", measure(this::guiRun, List.of("-XX:SharedArchiveFile=" + gui)));
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("started", Instant.now().toString());
+        report.put("java", java);
+        report.put("jar", jar.toAbsolutePath().toString());
+        report.put("springAot", aot);
+        report.put("runs", runs);
+        report.put("timeToFirstRequestMillis", variants);
+        Path parent = output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+        System.err.println("Report written to " + output.toAbsolutePath());
+    }
+
+    /** One way of starting the application; returns milliseconds to its first request. */
+    private interface Launch {
+        long time(List<String> jvmArgs) throws IOException, InterruptedException;
+    }
+
+    private Map<String, Object> measure(Launch launch, List<String> jvmArgs) throws IOException, InterruptedException {
+        launch.time(jvmArgs); // warms the file system cache
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = launch.time(jvmArgs);
+        }
+        Arrays.sort(millis);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jvmArgs", jvmArgs);
+        result.put("median", millis[runs / 2]);
+        result.put("min", millis[0]);
+        result.put("max", millis[runs - 1]);
+        System.err.printf("%-40s median %5d ms (min %d, max %d)%n",
+                jvmArgs.isEmpty() ? "default" : String.join(" ", jvmArgs), millis[runs / 2], millis[0], millis[runs - 1]);
+        return result;
+    }
+
+    /**
+     * Starts the server on a free port and polls until it translates a request.
+     */
+    private long serverRun(List<String> jvmArgs) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = command(jvmArgs);
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port));
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/morse/encode?text=SOS"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IOException("Server exited with status " + process.exitValue());
+                }
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+            throw new IOException("Server did not answer within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * Starts the GUI in its startup-check mode and waits until it reports its first translation.
+     */
+    private long guiRun(List<String> jvmArgs) throws IOException, InterruptedException {
+        List<String> command = command(jvmArgs);
+        command.addAll(List.of("-D" + MainFrame.STARTUP_CHECK_PROPERTY + "=true",
+                "-cp", jar.toString(), MainFrame.class.getName()));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith(MainFrame.STARTUP_READY_MARKER)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+            }
+            throw new IOException("GUI exited without reporting its first translation");
+        } finally {
+            if (!process.waitFor(TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private List<String> command(List<String> jvmArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        if (aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        return command;
+    }
+}
@@ -1,5 +1,7 @@
 package com.capaciti.morse;
 
+import com.capaciti.morse.service.AudioSettings;
+import com.capaciti.morse.service.MorseAudioRenderer;
 import com.capaciti.morse.service.MorseCodeService;
 import com.capaciti.morse.service.MorseCodeServiceImpl;
 import com.capaciti.morse.service.MorseService;
@@ -9,7 +11,18 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * MainFrame class represents the primary GUI window for the Morse Code Encoder/Decoder application.
@@ -26,6 +39,32 @@ public class MainFrame extends JFrame {
     private final JButton copyButton; // Button to copy the result to clipboard
     private final JButton pasteButton; // Button to paste content from clipboard
     private final JButton playButton; // Button to play the Morse code as sound
+    private final JButton stopButton; // Button to stop playback
+    private final JProgressBar progressBar; // Shows how far a translation has got
+    private final JButton cancelButton; // Button to cancel a running translation
+    private final JPanel progressPanel; // Holds the progress bar and cancel button, shown while translating
+
+    // Output is handed to the text area in pieces of about this many characters
+    private static final int PUBLISH_CHUNK_SIZE = 16 * 1024;
+
+    // When this system property is true, the frame shows one translation, prints
+    // STARTUP_READY_MARKER and the JVM uptime, and exits; used to measure startup time
+    static final String STARTUP_CHECK_PROPERTY = "morse.startup.exit";
+    static final String STARTUP_READY_MARKER = "morse-startup-ready";
+
+    private TranslationWorker translation; // The running translation, touched only on the EDT
+
+    // Audio buffered ahead of the speaker; bounds how long Stop takes to be heard
+    private static final int LINE_BUFFER_MILLIS = 100;
+
+    // All playback, including every use of the audio line, runs on this one thread
+    private final ExecutorService playbackExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "morse-playback");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> playback; // The current playback task, touched only on the EDT
+    private SourceDataLine line; // Opened on first playback and kept open, touched only by playbackExecutor
 
     /**
      * Constructor for the MainFrame.
@@ -38,7 +77,7 @@ public class MainFrame extends JFrame {
 
         // Set up the frame properties
         setTitle("R2-D2’s Translator");
-        setSize(580, 480); // Set the size of the window
+        setSize(580, 520); // Set the size of the window
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Close application on window close
         setLocationRelativeTo(null); // Center the window on screen
         setResizable(false); // Disable resizing of the window
@@ -51,6 +90,10 @@ public class MainFrame extends JFrame {
         copyButton = new JButton("Copy"); // Button for copying result to clipboard
         pasteButton = new JButton("Paste"); // Button for pasting clipboard content
         playButton = new JButton("Play"); // Button for playing Morse code sound
+        stopButton = new JButton("Stop"); // Button for stopping playback
+        progressBar = new JProgressBar(0, 100); // Progress of the running translation
+        cancelButton = new JButton("Cancel"); // Button for cancelling a translation
+        progressPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 0));
 
         // Set up the UI layout and button actions
         setupUI();
@@ -88,6 +131,7 @@ public class MainFrame extends JFrame {
         setupButtonStyle(copyButton, new Color(255, 152, 0));
         setupButtonStyle(pasteButton, new Color(255, 235, 59));
         setupButtonStyle(playButton, new Color(121, 85, 72)); // Brown color for the play button
+        setupButtonStyle(stopButton, new Color(158, 158, 158));
 
         // Tooltips for buttons to give users information about their functionality
         encodeButton.setToolTipText("Encode plain text to Morse code");
@@ -95,6 +139,16 @@ public class MainFrame extends JFrame {
         copyButton.setToolTipText("Copy output text to clipboard");
         pasteButton.setToolTipText("Paste text from clipboard");
         playButton.setToolTipText("Play Morse code as sound");
+        stopButton.setToolTipText("Stop playing");
+        cancelButton.setToolTipText("Cancel the translation");
+
+        // Configure the progress row, hidden until a translation starts
+        setupButtonStyle(cancelButton, new Color(244, 67, 54));
+        progressBar.setStringPainted(true); // Show the percentage
+        progressPanel.setBackground(Color.WHITE);
+        progressPanel.add(progressBar);
+        progressPanel.add(cancelButton);
+        progressPanel.setVisible(false);
 
         // Set up the main layout panel
         JPanel mainPanel = new JPanel();
@@ -106,7 +160,9 @@ public class MainFrame extends JFrame {
         mainPanel.add(createInputPanel(font));
         mainPanel.add(Box.createVerticalStrut(25));
         mainPanel.add(createButtonPanel());
-        mainPanel.add(Box.createVerticalStrut(25));
+        mainPanel.add(Box.createVerticalStrut(15));
+        mainPanel.add(progressPanel);
+        mainPanel.add(Box.createVerticalStrut(10));
         mainPanel.add(new JScrollPane(resultTextArea));
 
         // Add the main panel to the frame
@@ -153,7 +209,7 @@ public class MainFrame extends JFrame {
     }
 
     /**
-     * Creates a panel that contains action buttons (Encode, Decode, Copy, Paste, Play).
+     * Creates a panel that contains action buttons (Encode, Decode, Copy, Paste, Play, Stop).
      *
      * @return A panel containing the buttons.
      */
@@ -167,6 +223,7 @@ public class MainFrame extends JFrame {
         panel.add(copyButton);
         panel.add(pasteButton);
         panel.add(playButton);
+        panel.add(stopButton);
 
         return panel;
     }
@@ -176,20 +233,17 @@ public class MainFrame extends JFrame {
      * Each button performs a specific task, like encoding, decoding, or copying/pasting content.
      */
     private void setupActions() {
-        // Encode button action: Convert text to Morse code
-        encodeButton.addActionListener(e -> {
-            String input = textInputField.getText().trim(); // Get user input
-            resultTextArea.setText(
-                    input.isEmpty() ? "" : morseCodeService.encode(input) // Encode using service
-            );
-        });
+        // Encode button action: Convert text to Morse code in the background
+        encodeButton.addActionListener(e -> startTranslation(true));
+
+        // Decode button action: Convert Morse code to plain text in the background
+        decodeButton.addActionListener(e -> startTranslation(false));
 
-        // Decode button action: Convert Morse code to plain text
-        decodeButton.addActionListener(e -> {
-            String input = textInputField.getText().trim(); // Get Morse code input
-            resultTextArea.setText(
-                    input.isEmpty() ? "" : morseCodeService.decode(input) // Decode using service
-            );
+        // Cancel button action: Stop the running translation, keeping what has been shown so far
+        cancelButton.addActionListener(e -> {
+            if (translation != null) {
+                translation.cancel(true);
+            }
         });
 
         // Copy button action: Copy result to clipboard
@@ -216,60 +270,242 @@ public class MainFrame extends JFrame {
             }
         });
 
-        // Play button action: Play Morse code as audio
+        // Play button action: Play Morse code as audio, replacing anything already playing
         playButton.addActionListener(e -> {
             String morseCode = resultTextArea.getText().trim();
             if (!morseCode.isEmpty()) {
-                new Thread(() -> playMorseCode(morseCode)).start(); // Play Morse code sound in a new thread
+                stopPlayback();
+                playback = playbackExecutor.submit(() -> playMorseCode(morseCode));
             } else {
                 JOptionPane.showMessageDialog(this, "Nothing to play."); // Show message if no content to play
             }
         });
+
+        // Stop button action: Silence playback straight away
+        stopButton.addActionListener(e -> {
+            stopPlayback();
+            playbackExecutor.execute(this::flushLine);
+        });
     }
 
     /**
-     * Plays the given Morse code as sound (beeps for dots and dashes).
+     * Starts translating the input in the background, replacing any translation in progress.
      *
-     * @param morse - The Morse code string to play.
+     * @param encode - True to encode text to Morse code, false to decode Morse code to text.
      */
-    private void playMorseCode(String morse) {
-        for (char c : morse.toCharArray()) {
+    private void startTranslation(boolean encode) {
+        if (translation != null) {
+            translation.cancel(true);
+        }
+        resultTextArea.setText("");
+        String input = textInputField.getText().trim(); // Get user input
+        if (input.isEmpty()) {
+            return;
+        }
+        translation = new TranslationWorker(input, encode);
+        translation.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progressBar.setValue((Integer) e.getNewValue());
+            }
+        });
+        encodeButton.setEnabled(false);
+        decodeButton.setEnabled(false);
+        progressBar.setValue(0);
+        progressPanel.setVisible(true);
+        translation.execute();
+    }
+
+    /**
+     * Translates with the streaming service methods off the event dispatch thread. Output is
+     * published in chunks and appended to the result area as it arrives, so the window stays
+     * responsive and shows partial results for multi-megabyte input. Progress is the share
+     * of the input read so far.
+     */
+    private final class TranslationWorker extends SwingWorker<Void, String> {
+
+        private final String input;
+        private final boolean encode;
+
+        TranslationWorker(String input, boolean encode) {
+            this.input = input;
+            this.encode = encode;
+        }
+
+        @Override
+        protected Void doInBackground() throws IOException {
+            Reader in = new ProgressReader(new StringReader(input));
+            Writer out = new PublishingWriter();
+            if (encode) {
+                morseCodeService.encode(in, out);
+            } else {
+                morseCodeService.decode(in, out);
+            }
+            out.flush(); // Publish the last partial chunk
+            return null;
+        }
+
+        @Override
+        protected void process(List<String> chunks) {
+            if (translation != this || isCancelled()) {
+                return; // Superseded: don't mix stale output into the new result
+            }
+            for (String chunk : chunks) {
+                resultTextArea.append(chunk);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (translation != this) {
+                return;
+            }
+            translation = null;
+            encodeButton.setEnabled(true);
+            decodeButton.setEnabled(true);
+            progressPanel.setVisible(false);
+            if (isCancelled()) {
+                return;
+            }
             try {
-                switch (c) {
-                    case '.': beep(800, 150); break; // Dot (short beep)
-                    case '-': beep(800, 400); break; // Dash (long beep)
-                    case ' ': Thread.sleep(200); break; // Space between letters
-                    case '/': Thread.sleep(600); break; // Space between words
+                get();
+            } catch (InterruptedException | ExecutionException ex) {
+                JOptionPane.showMessageDialog(MainFrame.this, "Translation failed."); // Error handling
+            }
+        }
+
+        /**
+         * Counts characters as the service reads them and stops the translation once cancelled.
+         */
+        private final class ProgressReader extends FilterReader {
+
+            private long read;
+
+            ProgressReader(Reader in) {
+                super(in);
+            }
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                if (isCancelled()) {
+                    throw new InterruptedIOException("Translation cancelled");
+                }
+                int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    read += n;
+                    setProgress((int) (read * 100 / input.length()));
                 }
-                Thread.sleep(100); // Small pause between symbols
-            } catch (InterruptedException ignored) {
+                return n;
+            }
+
+            @Override
+            public int read() throws IOException {
+                char[] one = new char[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0];
+            }
+        }
+
+        /**
+         * Collects output and publishes it to the event dispatch thread in large chunks.
+         */
+        private final class PublishingWriter extends Writer {
+
+            private final StringBuilder pending = new StringBuilder(PUBLISH_CHUNK_SIZE);
+
+            @Override
+            public void write(char[] buffer, int offset, int length) {
+                pending.append(buffer, offset, length);
+                if (pending.length() >= PUBLISH_CHUNK_SIZE) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void write(String text, int offset, int length) {
+                pending.append(text, offset, offset + length);
+                if (pending.length() >= PUBLISH_CHUNK_SIZE) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void flush() {
+                if (!pending.isEmpty()) {
+                    publish(pending.toString());
+                    pending.setLength(0);
+                }
+            }
+
+            @Override
+            public void close() {
+                flush();
             }
         }
     }
 
     /**
-     * Generates a beep sound at a specified frequency and duration.
+     * Cancels the current playback task, if any. The task notices within one small
+     * chunk of audio and discards what is still buffered in the line.
+     */
+    private void stopPlayback() {
+        if (playback != null) {
+            playback.cancel(true);
+            playback = null;
+        }
+    }
+
+    /**
+     * Plays the given Morse code as sound. The whole message is rendered once with the same
+     * engine as the REST {@code /sound} endpoint, so tone and gap lengths are exact to the
+     * sample at any speed, and written to the long-lived audio line in small chunks so that
+     * playback can be cancelled. Runs on the playback thread.
      *
-     * @param freq - The frequency of the beep in Hz.
-     * @param duration - The duration of the beep in milliseconds.
+     * @param morse - The Morse code string to play.
      */
-    private void beep(int freq, int duration) {
-        float sampleRate = 44100; // Sample rate for audio
-        byte[] buf = new byte[(int) (sampleRate * duration / 1000)]; // Create an empty buffer for the audio
-        for (int i = 0; i < buf.length; i++) {
-            double angle = 2.0 * Math.PI * i / (sampleRate / freq); // Calculate the sine wave
-            buf[i] = (byte) (Math.sin(angle) * 127); // Apply sine wave for the beep sound
+    private void playMorseCode(String morse) {
+        MorseAudioRenderer renderer = MorseAudioRenderer.of(AudioSettings.DEFAULT);
+        byte[] pcm = renderer.renderPcm(morse); // Render tones and gaps in one pass
+        AudioFormat af = renderer.audioFormat();
+        try {
+            SourceDataLine sdl = openLine(af);
+            sdl.flush(); // Drop the tail of any earlier message
+            int chunk = af.getFrameSize() * Math.max(1, (int) af.getFrameRate() / 100); // 10 ms of audio
+            for (int offset = 0; offset < pcm.length; ) {
+                if (Thread.currentThread().isInterrupted()) {
+                    sdl.flush(); // Stopped or replaced: silence what is still buffered
+                    return;
+                }
+                offset += sdl.write(pcm, offset, Math.min(chunk, pcm.length - offset));
+            }
+        } catch (LineUnavailableException ex) {
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Audio output is unavailable."));
         }
+    }
 
-        // Create an audio format and play the sound
-        AudioFormat af = new AudioFormat(sampleRate, 8, 1, true, false);
-        try (SourceDataLine sdl = AudioSystem.getSourceDataLine(af)) {
-            sdl.open(af);
+    /**
+     * Returns the audio line, opening it on first use or when the format changes. The line
+     * stays open and running between messages, so playback starts without a gap.
+     */
+    private SourceDataLine openLine(AudioFormat af) throws LineUnavailableException {
+        if (line != null && !line.getFormat().matches(af)) {
+            line.close();
+            line = null;
+        }
+        if (line == null) {
+            SourceDataLine sdl = AudioSystem.getSourceDataLine(af);
+            int bufferBytes = af.getFrameSize() * (int) (af.getFrameRate() * LINE_BUFFER_MILLIS / 1000);
+            sdl.open(af, bufferBytes);
             sdl.start();
-            sdl.write(buf, 0, buf.length); // Write the audio data to the line
-            sdl.drain(); // Ensure the audio finishes playing
-            sdl.stop(); // Stop the audio line
-        } catch (LineUnavailableException ignored) {
+            line = sdl;
+        }
+        return line;
+    }
+
+    /**
+     * Discards audio buffered in the line. Runs on the playback thread.
+     */
+    private void flushLine() {
+        if (line != null) {
+            line.flush();
         }
     }
 
@@ -281,7 +517,23 @@ public class MainFrame extends JFrame {
         SwingUtilities.invokeLater(() -> {
             MorseService morseService = new MorseService(); // Create the Morse service
             MorseCodeService service = new MorseCodeServiceImpl(morseService); // Create the Morse code service
-            new MainFrame(service).setVisible(true); // Display the main frame
+            MainFrame frame = new MainFrame(service);
+            frame.setVisible(true); // Display the main frame
+            if (Boolean.getBoolean(STARTUP_CHECK_PROPERTY)) {
+                frame.reportStartup();
+            }
         });
     }
+
+    /**
+     * Shows a first translation, reports how long the JVM took to get here and exits.
+     * Runs on the EDT right after the frame is shown.
+     */
+    private void reportStartup() {
+        resultTextArea.setText(morseCodeService.encode("SOS"));
+        System.out.println(STARTUP_READY_MARKER + " " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms");
+        System.out.flush();
+        dispose();
+        System.exit(0);
+    }
 }
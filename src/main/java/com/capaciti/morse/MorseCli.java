@@ -0,0 +1,242 @@
+package com.capaciti.morse;
+
+import com.capaciti.morse.service.MorseAlphabet;
+import com.capaciti.morse.service.MorseService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * MorseCli translates whole files from the command line, without starting Spring or the GUI.
+ * <p>
+ * The input file is memory-mapped and cut into chunks of about {@link #DEFAULT_CHUNK_SIZE}
+ * bytes. Chunks end only at separators, whitespace when encoding and word breaks or
+ * whitespace when decoding, so no character, prosign or symbol is ever split. Chunks are
+ * translated in parallel and written in their original order, with at most two per
+ * thread in flight, so memory use does not depend on file size. The output is exactly
+ * what translating the whole file in one call would produce. Chunks are translated
+ * straight from the mapped bytes by the byte methods of {@link MorseService}, so text is
+ * never converted to or from {@code String}s.
+ * <p>
+ * Usage: {@code MorseCli encode|decode <input> <output> [--alphabet=<name>] [--threads=<n>]}.
+ * Files are read and written as UTF-8.
+ */
+public final class MorseCli {
+
+    /** Target size of a chunk; each one is mapped, translated and written as a unit. */
+    static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    /** Bytes mapped at a time while looking for the separator that ends a chunk. */
+    private static final int SCAN_WINDOW = 64 * 1024;
+
+    private static final String USAGE =
+            "Usage: MorseCli encode|decode <input> <output> [--alphabet=<name>] [--threads=<n>]";
+
+    private final MorseService morseService = new MorseService();
+    private final boolean encode;
+    private final MorseAlphabet alphabet;
+    private final int threads;
+    private final int chunkSize;
+
+    MorseCli(boolean encode, MorseAlphabet alphabet, int threads, int chunkSize) {
+        this.encode = encode;
+        this.alphabet = alphabet;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3 || !(args[0].equals("encode") || args[0].equals("decode"))) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        MorseAlphabet alphabet = MorseAlphabet.defaultAlphabet();
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            for (int i = 3; i < args.length; i++) {
+                if (args[i].startsWith("--alphabet=")) {
+                    alphabet = MorseAlphabet.forName(args[i].substring("--alphabet=".length()));
+                } else if (args[i].startsWith("--threads=")) {
+                    threads = Integer.parseInt(args[i].substring("--threads=".length()));
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("--threads must be at least 1");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        MorseCli cli = new MorseCli(args[0].equals("encode"), alphabet, threads, DEFAULT_CHUNK_SIZE);
+        try {
+            long start = System.nanoTime();
+            long bytes = cli.translate(Path.of(args[1]), Path.of(args[2]));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("Translated %,d bytes in %.2f s (%.1f MB/s)%n",
+                    bytes, seconds, bytes / 1e6 / Math.max(seconds, 1e-9));
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Translation failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Translates one file into another, replacing the output file if it exists.
+     *
+     * @param input  the file to read
+     * @param output the file to write
+     * @return the size of the input in bytes
+     * @throws IOException if reading or writing fails
+     */
+    long translate(Path input, Path output) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "morse-cli");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            Queue<Future<Piece>> inFlight = new ArrayDeque<>();
+            Joiner joiner = new Joiner(out);
+            for (long start = 0; start < size; ) {
+                long end = boundary(in, Math.min(size, start + chunkSize), size);
+                MappedByteBuffer chunk = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                inFlight.add(workers.submit(() -> translate(chunk)));
+                if (inFlight.size() >= 2 * threads) {
+                    joiner.write(await(inFlight.remove()));
+                }
+                start = end;
+            }
+            while (!inFlight.isEmpty()) {
+                joiner.write(await(inFlight.remove()));
+            }
+            return size;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the position of the first separator at or after {@code from}, or the end
+     * of the file. A chunk ends there and the separator starts the next one.
+     */
+    private long boundary(FileChannel in, long from, long size) throws IOException {
+        for (long position = from; position < size; ) {
+            MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(SCAN_WINDOW, size - position));
+            for (int i = 0; i < window.limit(); i++) {
+                if (isSeparator(window.get(i))) {
+                    return position + i;
+                }
+            }
+            position += window.limit();
+        }
+        return size;
+    }
+
+    /**
+     * Whitespace separates characters and words in both directions; {@code /} also ends
+     * a Morse symbol. Neither can occur inside a multi-byte UTF-8 sequence or a prosign.
+     */
+    private boolean isSeparator(byte b) {
+        return (b >= 0 && b <= ' ') || (!encode && b == '/');
+    }
+
+    /**
+     * Translates one chunk straight from the mapped bytes. Runs on a worker thread.
+     */
+    private Piece translate(ByteBuffer chunk) {
+        if (encode) {
+            return new Piece(morseService.encode(chunk, alphabet), 0, 0);
+        }
+        // The decoder drops word breaks at either end; count them so they can be
+        // restored between this chunk and its neighbours
+        int leadingBreaks = 0;
+        int trailingBreaks = 0;
+        int i = 0;
+        for (; i < chunk.limit() && isSeparator(chunk.get(i)); i++) {
+            leadingBreaks += chunk.get(i) == '/' ? 1 : 0;
+        }
+        for (int j = chunk.limit() - 1; j >= i && isSeparator(chunk.get(j)); j--) {
+            trailingBreaks += chunk.get(j) == '/' ? 1 : 0;
+        }
+        return new Piece(morseService.decode(chunk, alphabet), leadingBreaks, trailingBreaks);
+    }
+
+    private static Piece await(Future<Piece> piece) throws IOException {
+        try {
+            return piece.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * A translated chunk. When decoding, the word breaks before its first symbol and
+     * after its last are kept aside, because they separate it from its neighbours.
+     */
+    private record Piece(ByteBuffer bytes, int leadingBreaks, int trailingBreaks) {
+    }
+
+    /**
+     * Writes pieces in order, putting back the separators that translating each chunk on
+     * its own leaves out: a space between encoded chunks, and the word breaks between
+     * decoded ones.
+     */
+    private final class Joiner {
+
+        private final FileChannel out;
+        private boolean written;
+        private int pendingBreaks;
+
+        Joiner(FileChannel out) {
+            this.out = out;
+        }
+
+        void write(Piece piece) throws IOException {
+            pendingBreaks += piece.leadingBreaks();
+            if (!piece.bytes().hasRemaining()) {
+                return; // only whitespace and word breaks
+            }
+            if (written) {
+                int separators = encode ? 1 : pendingBreaks;
+                if (separators > 0) {
+                    writeFully(ByteBuffer.wrap(" ".repeat(separators).getBytes(StandardCharsets.US_ASCII)));
+                }
+            }
+            writeFully(piece.bytes());
+            written = true;
+            pendingBreaks = piece.trailingBreaks();
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
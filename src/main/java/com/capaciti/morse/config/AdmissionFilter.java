@@ -0,0 +1,182 @@
+package com.capaciti.morse.config;
+
+import com.capaciti.morse.controller.InvalidRequestException;
+import com.capaciti.morse.controller.SoundRequest;
+import com.capaciti.morse.service.AudioSettings;
+import com.capaciti.morse.service.MorseService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AdmissionFilter asks the {@link AdmissionLimiter} before a translation request reaches
+ * the controller, and answers with 429 or 503 and {@code Retry-After} when it may not.
+ * <p>
+ * Each request is charged an estimate of its work, taken from its parameters without
+ * reading the body: the size of the audio file for rendered audio, the text length for
+ * encode and decode, and the content length for uploads.
+ * The charge is held against the global budget until the response is complete, including
+ * any streamed body. The live keying WebSocket is not limited here; its sessions bound
+ * themselves.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String LIVE_PATH = "/api/morse/live";
+
+    private final AdmissionLimiter limiter;
+    private final MorseService morseService;
+    private final long unknownLengthCost;
+
+    public AdmissionFilter(AdmissionLimiter limiter, MorseService morseService, long unknownLengthCost) {
+        this.limiter = limiter;
+        this.morseService = morseService;
+        this.unknownLengthCost = unknownLengthCost;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith(LIVE_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        AdmissionLimiter.Admission admission = limiter.admit(request.getRemoteAddr(), cost(request));
+        if (!admission.admitted()) {
+            reject(response, admission);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(admission));
+            } else {
+                limiter.release(admission);
+            }
+        }
+    }
+
+    /**
+     * Estimates the work a request will cause, in the limiter's cost units.
+     */
+    long cost(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (request.getMethod().equals("GET")) {
+            if (uri.endsWith("/sound")) {
+                return soundCost(request);
+            }
+            String text = request.getParameter(uri.endsWith("/decode") ? "code" : "text");
+            return text != null ? text.length() : 1;
+        }
+        long length = request.getContentLengthLong();
+        return length >= 0 ? length : unknownLengthCost;
+    }
+
+    /**
+     * The exact size of the audio file, from the format and settings the controller
+     * resolves, so Farnsworth spacing, 16-bit samples and an {@code Accept}-chosen format
+     * are charged for. The size is counted from the symbols and the settings alone, with
+     * no lock taken and no audio rendered. Unparseable parameters count as their defaults
+     * and invalid settings as a single unit; the controller rejects them before rendering
+     * anything.
+     */
+    private long soundCost(HttpServletRequest request) {
+        String text = request.getParameter("text");
+        if (text == null) {
+            return 1;
+        }
+        String audioFormat = SoundRequest.format(request.getParameter("format"), request.getHeader(HttpHeaders.ACCEPT));
+        if (audioFormat.equals("events")) {
+            return text.length();
+        }
+        try {
+            AudioSettings settings = SoundRequest.settings(audioFormat,
+                    intParameter(request, "wpm"),
+                    intParameter(request, "farnsworthWpm"),
+                    intParameter(request, "frequency"),
+                    intParameter(request, "sampleRate"),
+                    intParameter(request, "bitDepth"),
+                    intParameter(request, "rampMillis"));
+            return morseService.morseAudioLength(text, settings);
+        } catch (InvalidRequestException e) {
+            return 1;
+        }
+    }
+
+    /**
+     * Reads an integer parameter, or null if it is missing or not a number.
+     */
+    private static Integer intParameter(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response, AdmissionLimiter.Admission admission)
+            throws IOException {
+        boolean clientLimited = admission.outcome() == AdmissionLimiter.Outcome.CLIENT_LIMITED;
+        response.setStatus(clientLimited
+                ? HttpStatus.TOO_MANY_REQUESTS.value()
+                : HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader("Retry-After", Long.toString(admission.retryAfterSeconds()));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(clientLimited
+                ? "Too many requests from this client, please retry later"
+                : "Server is at capacity, please retry");
+    }
+
+    /**
+     * Releases the admission once an asynchronous response, such as a streamed body, ends.
+     */
+    private final class ReleaseListener implements AsyncListener {
+
+        private final AdmissionLimiter.Admission admission;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseListener(AdmissionLimiter.Admission admission) {
+            this.admission = admission;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Still the same request; keep holding the admission
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(admission);
+            }
+        }
+    }
+}
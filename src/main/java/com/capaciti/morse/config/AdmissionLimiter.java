@@ -0,0 +1,197 @@
+package com.capaciti.morse.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * AdmissionLimiter decides whether a request may start, given an estimate of its cost.
+ * <p>
+ * Each client has a token bucket that refills at a steady rate up to a burst capacity.
+ * The bucket is stored as a single {@link AtomicLong}, the time at which it will be full
+ * again (the generic cell rate algorithm), so taking tokens is one compare-and-set and a
+ * full bucket needs no state at all. On top of that a global budget bounds the total
+ * cost of requests in progress, so a crowd of well-behaved clients cannot together
+ * exhaust CPU and heap. No decision takes a lock.
+ * <p>
+ * A single request costing more than the bucket capacity or the global budget is
+ * charged at that limit, so any request is admissible on an idle server. Idle clients
+ * are forgotten once more than {@code maxClients} are tracked.
+ */
+public class AdmissionLimiter {
+
+    /** Result of asking to admit a request. */
+    public enum Outcome {
+        /** The request may proceed and must be released when done. */
+        ADMITTED,
+        /** The client has used up its bucket; answer 429. */
+        CLIENT_LIMITED,
+        /** The global budget is in use; answer 503. */
+        OVERLOADED
+    }
+
+    /**
+     * An admission decision. Rejections carry how long the client should wait.
+     *
+     * @param outcome           whether the request was admitted, and if not why
+     * @param cost              the cost charged against the global budget
+     * @param retryAfterSeconds when rejected, seconds until a retry may succeed
+     */
+    public record Admission(Outcome outcome, long cost, long retryAfterSeconds) {
+
+        public boolean admitted() {
+            return outcome == Outcome.ADMITTED;
+        }
+    }
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double nanosPerUnit;
+    private final long burstNanos;
+    private final long burstCapacity;
+    private final long globalBudget;
+    private final int maxClients;
+    private final LongSupplier nanoTime;
+
+    /** Per client, the time at which its bucket is full again. */
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final LongAdder clientLimited = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+
+    /**
+     * Creates a limiter.
+     *
+     * @param clientRate    cost units each client's bucket refills per second
+     * @param clientBurst   capacity of each client's bucket, in cost units
+     * @param globalBudget  total cost of requests that may be in progress at once
+     * @param maxClients    clients tracked before idle ones are forgotten
+     * @param nanoTime      the clock, normally {@link System#nanoTime()}
+     */
+    public AdmissionLimiter(long clientRate, long clientBurst, long globalBudget, int maxClients,
+                            LongSupplier nanoTime) {
+        if (clientRate < 1 || clientBurst < 1 || globalBudget < 1 || maxClients < 1) {
+            throw new IllegalArgumentException("Admission limits must be positive");
+        }
+        this.nanosPerUnit = (double) NANOS_PER_SECOND / clientRate;
+        this.burstCapacity = clientBurst;
+        this.burstNanos = (long) Math.min(Long.MAX_VALUE / 4.0, clientBurst * nanosPerUnit);
+        this.globalBudget = globalBudget;
+        this.maxClients = maxClients;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Admits a request if both its client's bucket and the global budget allow it. An
+     * admitted request must be passed to {@link #release(Admission)} when it completes.
+     *
+     * @param client the client identity, such as its address
+     * @param cost   the estimated cost of the request, at least 1
+     * @return the decision
+     */
+    public Admission admit(String client, long cost) {
+        long globalCost = Math.min(Math.max(cost, 1), globalBudget);
+        long current;
+        do {
+            current = inFlight.get();
+            if (current > 0 && current + globalCost > globalBudget) {
+                overloaded.increment();
+                return new Admission(Outcome.OVERLOADED, 0, 1);
+            }
+        } while (!inFlight.compareAndSet(current, current + globalCost));
+
+        long now = nanoTime.getAsLong();
+        long wait = take(bucket(client, now), Math.min(Math.max(cost, 1), burstCapacity), now);
+        if (buckets.size() > maxClients) {
+            sweep(now);
+        }
+        if (wait > 0) {
+            inFlight.addAndGet(-globalCost);
+            clientLimited.increment();
+            return new Admission(Outcome.CLIENT_LIMITED, 0, Math.max(1, (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+        }
+        return new Admission(Outcome.ADMITTED, globalCost, 0);
+    }
+
+    /**
+     * Returns an admitted request's share of the global budget.
+     *
+     * @param admission the admission returned by {@link #admit(String, long)}
+     */
+    public void release(Admission admission) {
+        if (admission.admitted()) {
+            inFlight.addAndGet(-admission.cost());
+        }
+    }
+
+    /** @return requests rejected because their client's bucket was empty */
+    public long clientLimitedCount() {
+        return clientLimited.sum();
+    }
+
+    /** @return requests rejected because the global budget was in use */
+    public long overloadedCount() {
+        return overloaded.sum();
+    }
+
+    /** @return the total cost of requests in progress */
+    public long inFlightCost() {
+        return inFlight.get();
+    }
+
+    /** @return the number of clients currently tracked */
+    public int clientCount() {
+        return buckets.size();
+    }
+
+    /**
+     * Takes tokens from a bucket, returning 0 on success or the nanoseconds until enough
+     * tokens will have refilled.
+     */
+    private long take(AtomicLong bucket, long cost, long now) {
+        long increment = (long) Math.ceil(cost * nanosPerUnit);
+        long full;
+        long next;
+        do {
+            full = bucket.get();
+            next = Math.max(full, now) + increment;
+            if (next - now > burstNanos) {
+                return next - now - burstNanos;
+            }
+        } while (!bucket.compareAndSet(full, next));
+        return 0;
+    }
+
+    private AtomicLong bucket(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now);
+            bucket = buckets.putIfAbsent(client, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Forgets clients whose buckets are full again, which is the state a new bucket
+     * starts in. One thread sweeps at a time; the others carry on. A client charged
+     * while its bucket is being removed keeps that one charge off its record, which
+     * is harmless.
+     */
+    private void sweep(long now) {
+        if (sweeping.compareAndSet(false, true)) {
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() - now < 0);
+            } finally {
+                sweeping.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.capaciti.morse.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AudioRenderPool runs CPU-heavy audio rendering for {@code /api/morse/sound}.
+ * <p>
+ * Requests are served on virtual threads, so rendering is handed to this fixed,
+ * core-sized pool instead of competing with cheap encode and decode calls. Its queue
+ * is bounded and full submissions are rejected immediately with
+ * {@link RejectedExecutionException}, which the controller answers with 503 rather
+ * than letting work pile up.
+ * <p>
+ * Streamed audio is written chunk by chunk as the client reads it, so it cannot hold one
+ * of the pool's threads. It is bounded separately instead: each stream takes one of a
+ * fixed number of slots before the response starts, and is refused with the same
+ * exception when none is free.
+ * <p>
+ * The pool deliberately does not implement {@link java.util.concurrent.Executor}, so it
+ * is never picked up as the application's general-purpose task executor.
+ */
+@Component
+public class AudioRenderPool implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore streams;
+    private final int maxStreams;
+
+    public AudioRenderPool(@Value("${morse.audio.pool-size:0}") int poolSize,
+                           @Value("${morse.audio.queue-capacity:64}") int queueCapacity,
+                           @Value("${morse.audio.max-streams:64}") int maxStreams) {
+        this.maxStreams = maxStreams;
+        this.streams = new Semaphore(maxStreams);
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "audio-render-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs a task on the pool and waits for its result. The calling virtual thread
+     * parks while waiting, so no platform thread is held.
+     *
+     * @param task the rendering work
+     * @param <T>  the result type
+     * @return the task's result
+     * @throws RejectedExecutionException if the queue is full or the caller is interrupted
+     */
+    public <T> T call(Callable<T> task) {
+        Future<T> result = executor.submit(task);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for audio rendering", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Takes a slot for one streamed render. The caller must close the slot when the
+     * stream ends, however it ends; closing it more than once has no further effect.
+     *
+     * @return the slot, to be closed when streaming is over
+     * @throws RejectedExecutionException if every slot is taken
+     */
+    public StreamSlot openStream() {
+        if (!streams.tryAcquire()) {
+            throw new RejectedExecutionException("Too many audio streams in progress");
+        }
+        return new StreamSlot();
+    }
+
+    /** @return the number of renders currently running */
+    public int activeCount() {
+        return executor.getActiveCount();
+    }
+
+    /** @return the number of renders waiting for a thread */
+    public int queuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /** @return the number of streamed renders in progress */
+    public int streamingCount() {
+        return maxStreams - streams.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /** A slot held by one streamed render; see {@link #openStream()}. */
+    public final class StreamSlot implements AutoCloseable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private StreamSlot() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                streams.release();
+            }
+        }
+    }
+}
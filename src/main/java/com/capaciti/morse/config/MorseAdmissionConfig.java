@@ -0,0 +1,59 @@
+package com.capaciti.morse.config;
+
+import com.capaciti.morse.service.MorseService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Places an {@link AdmissionFilter} in front of the translation endpoints unless
+ * {@code morse.admission.enabled} is false, and publishes its rejection counts and the
+ * cost of requests in progress as metrics.
+ */
+@Configuration
+@EnableConfigurationProperties(MorseAdmissionProperties.class)
+@ConditionalOnProperty(prefix = "morse.admission", name = "enabled", matchIfMissing = true)
+public class MorseAdmissionConfig {
+
+    @Bean
+    public AdmissionLimiter admissionLimiter(MorseAdmissionProperties properties) {
+        return new AdmissionLimiter(properties.getClientRate(), properties.getClientBurst(),
+                properties.getGlobalBudget(), properties.getMaxClients(), System::nanoTime);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionLimiter admissionLimiter,
+                                                                   MorseService morseService,
+                                                                   MorseAdmissionProperties properties) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionFilter(admissionLimiter, morseService, properties.getUnknownLengthCost()));
+        registration.setName("morseAdmissionFilter");
+        registration.addUrlPatterns("/api/morse/*");
+        return registration;
+    }
+
+    @Bean
+    public MeterBinder morseAdmissionMetrics(AdmissionLimiter admissionLimiter) {
+        return registry -> {
+            FunctionCounter.builder("morse.admission.rejected", admissionLimiter, AdmissionLimiter::clientLimitedCount)
+                    .tag("reason", "client")
+                    .description("Requests answered with 429 because the client exceeded its rate")
+                    .register(registry);
+            FunctionCounter.builder("morse.admission.rejected", admissionLimiter, AdmissionLimiter::overloadedCount)
+                    .tag("reason", "global")
+                    .description("Requests answered with 503 because the global budget was in use")
+                    .register(registry);
+            Gauge.builder("morse.admission.in.flight", admissionLimiter, AdmissionLimiter::inFlightCost)
+                    .description("Estimated cost of requests in progress")
+                    .register(registry);
+            Gauge.builder("morse.admission.clients", admissionLimiter, AdmissionLimiter::clientCount)
+                    .description("Clients with a tracked rate limit")
+                    .register(registry);
+        };
+    }
+}
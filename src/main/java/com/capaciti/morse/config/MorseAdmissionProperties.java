@@ -0,0 +1,90 @@
+package com.capaciti.morse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for admission control of the translation endpoints, bound from
+ * {@code morse.admission.*}. Limits are in cost units: roughly one unit per input
+ * character for encode and decode, and one per byte of audio for {@code /sound}.
+ */
+@ConfigurationProperties(prefix = "morse.admission")
+public class MorseAdmissionProperties {
+
+    /**
+     * Whether requests are admitted through the limiter at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cost units each client may spend per second, sustained.
+     */
+    private long clientRate = 10_000_000;
+
+    /**
+     * Cost units a client may spend at once after being idle.
+     */
+    private long clientBurst = 50_000_000;
+
+    /**
+     * Total cost of requests that may be in progress at once, across all clients.
+     */
+    private long globalBudget = 200_000_000;
+
+    /**
+     * Number of clients tracked before idle ones are forgotten.
+     */
+    private int maxClients = 100_000;
+
+    /**
+     * Cost charged for a request body whose length is not known up front.
+     */
+    private long unknownLengthCost = 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getClientRate() {
+        return clientRate;
+    }
+
+    public void setClientRate(long clientRate) {
+        this.clientRate = clientRate;
+    }
+
+    public long getClientBurst() {
+        return clientBurst;
+    }
+
+    public void setClientBurst(long clientBurst) {
+        this.clientBurst = clientBurst;
+    }
+
+    public long getGlobalBudget() {
+        return globalBudget;
+    }
+
+    public void setGlobalBudget(long globalBudget) {
+        this.globalBudget = globalBudget;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public long getUnknownLengthCost() {
+        return unknownLengthCost;
+    }
+
+    public void setUnknownLengthCost(long unknownLengthCost) {
+        this.unknownLengthCost = unknownLengthCost;
+    }
+}
@@ -0,0 +1,70 @@
+package com.capaciti.morse.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.capaciti.morse.service.BoundedLruCache;
+import com.capaciti.morse.service.CachingMorseCodeService;
+import com.capaciti.morse.service.MorseCodeServiceImpl;
+import com.capaciti.morse.service.MorseService;
+
+/**
+ * Places a {@link CachingMorseCodeService} in front of {@link MorseCodeServiceImpl}
+ * unless {@code morse.cache.enabled} is false, and publishes its hit, miss and
+ * eviction counts and current size as metrics.
+ */
+@Configuration
+@EnableConfigurationProperties(MorseCacheProperties.class)
+public class MorseCacheConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "morse.cache", name = "enabled", matchIfMissing = true)
+    public CachingMorseCodeService cachingMorseCodeService(MorseCodeServiceImpl delegate,
+                                                           MorseService morseService,
+                                                           MorseCacheProperties properties) {
+        return new CachingMorseCodeService(delegate, morseService,
+                properties.getEncode(), properties.getDecode(), properties.getAudio());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "morse.cache", name = "enabled", matchIfMissing = true)
+    public MeterBinder morseCacheMetrics(CachingMorseCodeService cachingMorseCodeService) {
+        return registry -> {
+            bindCache(registry, "encode", cachingMorseCodeService.encodeCache());
+            bindCache(registry, "decode", cachingMorseCodeService.decodeCache());
+            bindCache(registry, "audio", cachingMorseCodeService.audioCache());
+        };
+    }
+
+    private static void bindCache(MeterRegistry registry, String name, BoundedLruCache<?, ?> cache) {
+        FunctionCounter.builder("morse.cache.gets", cache, BoundedLruCache::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .description("Cache lookups served from the cache")
+                .register(registry);
+        FunctionCounter.builder("morse.cache.gets", cache, BoundedLruCache::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .description("Cache lookups that computed their value")
+                .register(registry);
+        FunctionCounter.builder("morse.cache.evictions", cache, BoundedLruCache::evictionCount)
+                .tag("cache", name)
+                .description("Entries evicted to respect the cache limits")
+                .register(registry);
+        Gauge.builder("morse.cache.size", cache, BoundedLruCache::size)
+                .tag("cache", name)
+                .description("Number of cached entries")
+                .register(registry);
+        Gauge.builder("morse.cache.weight", cache, BoundedLruCache::weight)
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .description("Approximate size of cached entries")
+                .register(registry);
+    }
+}
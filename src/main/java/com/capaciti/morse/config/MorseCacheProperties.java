@@ -0,0 +1,79 @@
+package com.capaciti.morse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration for the translation result caches, bound from {@code morse.cache.*}.
+ */
+@ConfigurationProperties(prefix = "morse.cache")
+public class MorseCacheProperties {
+
+    /**
+     * Whether results are cached at all.
+     */
+    private boolean enabled = true;
+
+    private final Limits encode = new Limits(10_000, 16L * 1024 * 1024);
+    private final Limits decode = new Limits(10_000, 16L * 1024 * 1024);
+    private final Limits audio = new Limits(256, 64L * 1024 * 1024);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limits getEncode() {
+        return encode;
+    }
+
+    public Limits getDecode() {
+        return decode;
+    }
+
+    public Limits getAudio() {
+        return audio;
+    }
+
+    /**
+     * Size limits of a single cache. An entry is evicted as soon as either limit is exceeded.
+     */
+    public static class Limits {
+
+        /**
+         * Maximum number of cached results.
+         */
+        private int maxEntries;
+
+        /**
+         * Maximum total size of cached keys and results, in bytes.
+         */
+        private long maxBytes;
+
+        public Limits() {
+        }
+
+        public Limits(int maxEntries, long maxBytes) {
+            this.maxEntries = maxEntries;
+            this.maxBytes = maxBytes;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+}
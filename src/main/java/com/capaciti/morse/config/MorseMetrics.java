@@ -0,0 +1,112 @@
+package com.capaciti.morse.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import com.capaciti.morse.service.AudioSettings;
+import com.capaciti.morse.service.MorseAudioRenderer;
+import com.capaciti.morse.service.MorseService;
+
+/**
+ * MorseMetrics records translation and audio sizes with Micrometer.
+ * <p>
+ * Request latency is already timed per endpoint by Spring's {@code http.server.requests}
+ * metric. This class adds what the timer cannot see: input and output sizes, audio
+ * bytes and samples rendered, and how many characters fell back to {@code ?}. Meters
+ * are registered once up front, so recording is a lock-free update to an existing
+ * summary, and the unknown-character counts are read from {@link MorseService} only
+ * when metrics are scraped.
+ */
+@Component
+public class MorseMetrics {
+
+    /** Largest size the histograms resolve; bigger values land in the top bucket. */
+    private static final double MAX_EXPECTED_SIZE = 64 * 1024 * 1024;
+
+    private final DistributionSummary encodeInput;
+    private final DistributionSummary encodeOutput;
+    private final DistributionSummary decodeInput;
+    private final DistributionSummary decodeOutput;
+    private final DistributionSummary audioInput;
+    private final DistributionSummary audioBytes;
+    private final DistributionSummary audioSamples;
+
+    public MorseMetrics(MeterRegistry registry, MorseService morseService, AudioRenderPool audioRenderPool) {
+        this.encodeInput = sizeSummary(registry, "morse.input.size", "encode", "characters");
+        this.encodeOutput = sizeSummary(registry, "morse.output.size", "encode", "characters");
+        this.decodeInput = sizeSummary(registry, "morse.input.size", "decode", "characters");
+        this.decodeOutput = sizeSummary(registry, "morse.output.size", "decode", "characters");
+        this.audioInput = sizeSummary(registry, "morse.input.size", "audio", "characters");
+        this.audioBytes = sizeSummary(registry, "morse.audio.size", "audio", "bytes");
+        this.audioSamples = sizeSummary(registry, "morse.audio.samples", "audio", "samples");
+
+        FunctionCounter.builder("morse.unknown.characters", morseService, MorseService::unknownEncodedCount)
+                .description("Characters encoded as ? because they have no Morse symbol")
+                .tag("operation", "encode")
+                .register(registry);
+        FunctionCounter.builder("morse.unknown.characters", morseService, MorseService::unknownDecodedCount)
+                .description("Symbols decoded as ? because they are not recognised")
+                .tag("operation", "decode")
+                .register(registry);
+
+        Gauge.builder("morse.audio.render.active", audioRenderPool, AudioRenderPool::activeCount)
+                .description("Audio renders currently running")
+                .register(registry);
+        Gauge.builder("morse.audio.render.queued", audioRenderPool, AudioRenderPool::queuedCount)
+                .description("Audio renders waiting for a thread")
+                .register(registry);
+        Gauge.builder("morse.audio.render.streaming", audioRenderPool, AudioRenderPool::streamingCount)
+                .description("Streamed audio renders in progress")
+                .register(registry);
+    }
+
+    /**
+     * Records the sizes of one encode call.
+     *
+     * @param input  the plain text length
+     * @param output the Morse code length
+     */
+    public void recordEncode(int input, int output) {
+        encodeInput.record(input);
+        encodeOutput.record(output);
+    }
+
+    /**
+     * Records the sizes of one decode call.
+     *
+     * @param input  the Morse code length
+     * @param output the plain text length
+     */
+    public void recordDecode(int input, int output) {
+        decodeInput.record(input);
+        decodeOutput.record(output);
+    }
+
+    /**
+     * Records one rendered WAV file.
+     *
+     * @param input     the plain text length
+     * @param settings  the settings the audio was rendered with
+     * @param wavLength the size of the WAV file in bytes
+     */
+    public void recordAudio(int input, AudioSettings settings, long wavLength) {
+        audioInput.record(input);
+        audioBytes.record(wavLength);
+        long dataLength = wavLength - MorseAudioRenderer.headerLength(settings.encoding());
+        audioSamples.record(dataLength / settings.bytesPerSample());
+    }
+
+    private static DistributionSummary sizeSummary(MeterRegistry registry, String name,
+                                                   String operation, String unit) {
+        return DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(MAX_EXPECTED_SIZE)
+                .register(registry);
+    }
+}
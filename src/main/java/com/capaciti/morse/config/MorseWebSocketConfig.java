@@ -0,0 +1,31 @@
+package com.capaciti.morse.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import com.capaciti.morse.controller.MorseKeyingHandler;
+
+/**
+ * Registers the live keying WebSocket at {@code /api/morse/live}.
+ * <p>
+ * {@link MorseKeyingHandler} keeps each session's message buffers small and closes idle
+ * sessions, which keeps thousands of open sessions cheap.
+ */
+@Configuration
+@EnableWebSocket
+public class MorseWebSocketConfig implements WebSocketConfigurer {
+
+    private final MorseKeyingHandler keyingHandler;
+
+    public MorseWebSocketConfig(MorseKeyingHandler keyingHandler) {
+        this.keyingHandler = keyingHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(keyingHandler, "/api/morse/live")
+                .setAllowedOrigins("http://localhost:3000");
+    }
+}
@@ -0,0 +1,19 @@
+package com.capaciti.morse.controller;
+
+/**
+ * Thrown when a request's parameters or body fail validation, such as an unknown alphabet,
+ * out-of-range audio settings or a malformed upload. {@link MorseController} answers it
+ * with 400 and its message; any other {@link IllegalArgumentException} is a bug and
+ * surfaces as 500.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    /**
+     * Wraps the validation failure of a parameter or body, keeping its message.
+     *
+     * @param cause what the validating code threw
+     */
+    public InvalidRequestException(IllegalArgumentException cause) {
+        super(cause.getMessage(), cause);
+    }
+}
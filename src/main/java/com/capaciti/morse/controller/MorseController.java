@@ -1,53 +1,350 @@
 package com.capaciti.morse.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.capaciti.morse.config.AudioRenderPool;
+import com.capaciti.morse.config.MorseMetrics;
+import com.capaciti.morse.model.MorseRequest;
+import com.capaciti.morse.model.MorseResponse;
+import com.capaciti.morse.service.AudioSettings;
+import com.capaciti.morse.service.MorseAlphabet;
 import com.capaciti.morse.service.MorseCodeService;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
 /**
  * MorseController provides REST endpoints for encoding, decoding,
- * and generating sound for Morse code.
+ * and generating sound for Morse code. Text endpoints take an optional
+ * {@code alphabet} parameter, such as {@code cyrillic}, and default to the
+ * international alphabet.
+ * <p>
+ * GET translations are pure functions of their parameters, so they carry a strong ETag
+ * computed from the parameters alone (see {@link TranslationETag}) and a public
+ * {@code Cache-Control}. A request whose {@code If-None-Match} still matches is answered
+ * with 304 before anything is encoded or rendered.
  */
 @CrossOrigin(origins = "*")
 @RestController
 @RequestMapping("/api/morse")
 public class MorseController {
 
+    private static final String TEXT_PLAIN_UTF8 = "text/plain;charset=UTF-8";
+
+    /** Seconds a client is asked to wait when audio rendering is saturated. */
+    private static final String RENDER_RETRY_AFTER_SECONDS = "1";
+
     private final MorseCodeService morseCodeService;
+    private final AudioRenderPool audioRenderPool;
+    private final MorseMetrics metrics;
+    private final int maxBatchSize;
+    private final CacheControl cacheControl;
 
-    public MorseController(MorseCodeService morseCodeService) {
+    public MorseController(MorseCodeService morseCodeService,
+                           AudioRenderPool audioRenderPool,
+                           MorseMetrics metrics,
+                           @Value("${morse.batch.max-size:1000}") int maxBatchSize,
+                           @Value("${morse.http.max-age-seconds:86400}") long maxAgeSeconds) {
         this.morseCodeService = morseCodeService;
+        this.audioRenderPool = audioRenderPool;
+        this.metrics = metrics;
+        this.maxBatchSize = maxBatchSize;
+        this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
     }
 
     @GetMapping("/encode")
-    public String encode(@RequestParam String text) {
-        return morseCodeService.encode(text);
+    public ResponseEntity<String> encode(@RequestParam String text, @RequestParam(required = false) String alphabet,
+                                         WebRequest webRequest) {
+        MorseAlphabet morseAlphabet = alphabet(alphabet);
+        if (webRequest.checkNotModified(TranslationETag.of("encode", morseAlphabet, text))) {
+            return notModified();
+        }
+        String morse = morseCodeService.encode(text, morseAlphabet);
+        metrics.recordEncode(text.length(), morse.length());
+        return ResponseEntity.ok().cacheControl(cacheControl).body(morse);
     }
 
     @GetMapping("/decode")
-    public String decode(@RequestParam String code) {
-        return morseCodeService.decode(code);
+    public ResponseEntity<String> decode(@RequestParam String code, @RequestParam(required = false) String alphabet,
+                                         WebRequest webRequest) {
+        MorseAlphabet morseAlphabet = alphabet(alphabet);
+        if (webRequest.checkNotModified(TranslationETag.of("decode", morseAlphabet, code))) {
+            return notModified();
+        }
+        String text = morseCodeService.decode(code, morseAlphabet);
+        metrics.recordDecode(code.length(), text.length());
+        return ResponseEntity.ok().cacheControl(cacheControl).body(text);
     }
 
+    /**
+     * Encodes a UTF-8 request body of any size, streaming Morse code back as it is produced.
+     */
+    @PostMapping("/encode")
+    public void encodeStream(@RequestParam(required = false) String alphabet,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MorseAlphabet morseAlphabet = alphabet(alphabet);
+        response.setContentType(TEXT_PLAIN_UTF8);
+        try (Reader in = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+             Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)) {
+            morseCodeService.encode(in, out, morseAlphabet);
+        }
+    }
 
+    /**
+     * Decodes a Morse code request body of any size, streaming plain text back as it is produced.
+     */
+    @PostMapping("/decode")
+    public void decodeStream(@RequestParam(required = false) String alphabet,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MorseAlphabet morseAlphabet = alphabet(alphabet);
+        response.setContentType(TEXT_PLAIN_UTF8);
+        try (Reader in = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+             Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8)) {
+            morseCodeService.decode(in, out, morseAlphabet);
+        }
+    }
 
+    /**
+     * Encodes a UTF-8 body sent as {@code application/octet-stream} straight from request
+     * bytes to response bytes, with no intermediate strings.
+     */
+    @PostMapping(path = "/encode", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void encodeBytes(@RequestParam(required = false) String alphabet,
+                            @RequestBody byte[] body, HttpServletResponse response) throws IOException {
+        ByteBuffer morse = morseCodeService.encode(ByteBuffer.wrap(body), alphabet(alphabet));
+        metrics.recordEncode(body.length, morse.remaining());
+        writeBytes(morse, response);
+    }
 
-    @CrossOrigin(origins = "http://localhost:3000")
+    /**
+     * Decodes a Morse code body sent as {@code application/octet-stream} straight from
+     * request bytes to UTF-8 response bytes, with no intermediate strings.
+     */
+    @PostMapping(path = "/decode", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void decodeBytes(@RequestParam(required = false) String alphabet,
+                            @RequestBody byte[] body, HttpServletResponse response) throws IOException {
+        ByteBuffer text = morseCodeService.decode(ByteBuffer.wrap(body), alphabet(alphabet));
+        metrics.recordDecode(body.length, text.remaining());
+        writeBytes(text, response);
+    }
+
+    /**
+     * Decodes a recorded WAV body of any length back into text, streaming the text as it
+     * is recognised. {@code frequency} is the tone to listen for and defaults to the
+     * frequency {@code /sound} uses.
+     */
+    @PostMapping("/listen")
+    public void listen(@RequestParam(required = false) Integer frequency,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int tone = frequency != null ? frequency : AudioSettings.DEFAULT.frequency();
+        response.setContentType(TEXT_PLAIN_UTF8);
+        // Not closed on failure, so a malformed header can still be answered with 400
+        Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        try {
+            morseCodeService.decodeMorseAudio(request.getInputStream(), tone, out);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e); // an unsupported frequency or WAV header
+        }
+        out.flush();
+    }
+
+    /**
+     * Decodes hand-keyed Morse code from a body of key-down and key-up durations in
+     * milliseconds, positive for tones and negative for silences, such as
+     * {@code 60,-60,180,-180,...}. The operator's speed is learned as the stream goes, so
+     * {@code wpm} is only a starting point. Text is streamed back as it is recognised.
+     */
+    @PostMapping("/timing")
+    public void decodeTimings(@RequestParam(required = false) Integer wpm,
+                              @RequestParam(required = false) String alphabet,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MorseAlphabet morseAlphabet = alphabet(alphabet);
+        int speed = wpm != null ? wpm : AudioSettings.DEFAULT.wpm();
+        response.setContentType(TEXT_PLAIN_UTF8);
+        // Not closed on failure, so malformed events can still be answered with 400
+        Reader in = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        Writer out = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
+        try {
+            morseCodeService.decodeTimings(in, speed, out, morseAlphabet);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e); // an invalid speed or malformed events
+        }
+        out.flush();
+    }
+
+    /**
+     * Translates many messages in one round trip. Each item carries its own direction
+     * and alphabet, and responses are returned in request order.
+     */
+    @PostMapping("/batch")
+    public List<MorseResponse> batch(@RequestBody List<MorseRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch size " + requests.size() + " exceeds the limit of " + maxBatchSize);
+        }
+        for (MorseRequest request : requests) {
+            alphabet(request.getAlphabet()); // reject unknown alphabets before translating anything
+        }
+        List<MorseResponse> responses = morseCodeService.translateBatch(requests);
+        for (int i = 0; i < responses.size(); i++) {
+            MorseRequest request = requests.get(i);
+            int input = request.getMessage() == null ? 0 : request.getMessage().length();
+            int output = responses.get(i).getResult().length();
+            if (request.getDirection() == MorseRequest.Direction.DECODE) {
+                metrics.recordDecode(input, output);
+            } else {
+                metrics.recordEncode(input, output);
+            }
+        }
+        return responses;
+    }
 
+    /**
+     * Returns Morse code audio. Speed, tone and sample format can be set through query
+     * parameters; anything omitted falls back to {@link AudioSettings#DEFAULT}.
+     * <p>
+     * The output format is chosen by the {@code format} parameter, or else the
+     * {@code Accept} header: {@code wav} (linear PCM), {@code ulaw} or {@code alaw}
+     * (G.711 WAV, 8 kHz unless a sample rate is given), or {@code events}, a compact
+     * JSON list of tone durations for clients that synthesize audio themselves.
+     * <p>
+     * With {@code stream=true} WAV output is streamed: the exact length is computed from
+     * the symbol counts, the header is sent immediately and the samples follow in
+     * fixed-size chunks instead of being built in memory first. Streams hold one of a
+     * limited number of slots in {@link AudioRenderPool} until they finish, and are
+     * refused with 503 when none is free.
+     */
+    @CrossOrigin(origins = "http://localhost:3000")
     @GetMapping("/sound")
-    public ResponseEntity<byte[]> playMorseSound(@RequestParam String text) {
-        byte[] audioData = morseCodeService.generateMorseAudio(text);
+    public ResponseEntity<StreamingResponseBody> playMorseSound(@RequestParam String text,
+                                                            @RequestParam(defaultValue = "false") boolean stream,
+                                                            @RequestParam(required = false) String format,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                            @RequestParam(required = false) Integer wpm,
+                                                            @RequestParam(required = false) Integer farnsworthWpm,
+                                                            @RequestParam(required = false) Integer frequency,
+                                                            @RequestParam(required = false) Integer sampleRate,
+                                                            @RequestParam(required = false) Integer bitDepth,
+                                                            @RequestParam(required = false) Integer rampMillis,
+                                                            WebRequest webRequest) {
+        String audioFormat = SoundRequest.format(format, accept);
+        AudioSettings settings = SoundRequest.settings(audioFormat, wpm, farnsworthWpm, frequency, sampleRate,
+                bitDepth, rampMillis);
 
         HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(cacheControl);
+        if (format == null) {
+            headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        // Streamed and buffered audio are the same bytes, so stream is not part of the tag
+        String eTag = TranslationETag.of("sound", MorseAlphabet.defaultAlphabet(), text, audioFormat, settings);
+        if (webRequest.checkNotModified(eTag)) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        if (audioFormat.equals("events")) {
+            headers.setContentType(MediaType.parseMediaType(SoundRequest.TONE_EVENTS_MEDIA_TYPE));
+            byte[] events = morseCodeService.generateToneEvents(text, settings).getBytes(StandardCharsets.UTF_8);
+            headers.setContentLength(events.length);
+            return new ResponseEntity<>(out -> out.write(events), headers, HttpStatus.OK);
+        }
+
         headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        headers.setContentLength(audioData.length);
         headers.setContentDispositionFormData("attachment", "morse_code.wav");
 
-        return new ResponseEntity<>(audioData, headers, HttpStatus.OK);
+        if (stream) {
+            long length = morseCodeService.morseAudioLength(text, settings);
+            // Taken here rather than in the body, so a refusal can still be answered with 503
+            AudioRenderPool.StreamSlot slot = audioRenderPool.openStream();
+            metrics.recordAudio(text.length(), settings, length);
+            headers.setContentLength(length);
+            StreamingResponseBody body = out -> {
+                try (slot) {
+                    morseCodeService.writeMorseAudio(text, settings, out);
+                }
+            };
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+
+        ByteBuffer audio = audioRenderPool.call(() -> morseCodeService.generateMorseAudioBuffer(text, settings));
+        metrics.recordAudio(text.length(), settings, audio.remaining());
+        headers.setContentLength(audio.remaining());
+        StreamingResponseBody body = out -> {
+            WritableByteChannel channel = Channels.newChannel(out);
+            while (audio.hasRemaining()) {
+                channel.write(audio);
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Answers a conditional GET whose ETag still matches. {@link WebRequest#checkNotModified}
+     * has already set the status and the {@code ETag} header; only caching is added here.
+     */
+    private <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+    }
+
+    /**
+     * Rejects invalid parameters, such as out-of-range audio settings, with 400 Bad Request.
+     * Other {@link IllegalArgumentException}s are left to surface as 500.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<String> badRequest(InvalidRequestException e) {
+        return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+    }
+
+    /**
+     * Answers with 503 and {@code Retry-After} when the audio rendering queue or every
+     * streaming slot is full.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> renderingSaturated() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RENDER_RETRY_AFTER_SECONDS)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body("Audio rendering is at capacity, please retry");
+    }
+
+    private static void writeBytes(ByteBuffer bytes, HttpServletResponse response) throws IOException {
+        response.setContentType(TEXT_PLAIN_UTF8);
+        response.setContentLength(bytes.remaining());
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private static MorseAlphabet alphabet(String name) {
+        if (name == null) {
+            return MorseAlphabet.defaultAlphabet();
+        }
+        try {
+            return MorseAlphabet.forName(name);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e);
+        }
     }
 
 }
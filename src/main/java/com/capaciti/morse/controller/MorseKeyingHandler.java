@@ -0,0 +1,168 @@
+package com.capaciti.morse.controller;
+
+import jakarta.websocket.Session;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.capaciti.morse.service.AudioSettings;
+import com.capaciti.morse.service.MorseAlphabet;
+import com.capaciti.morse.service.MorseDecoder;
+import com.capaciti.morse.service.MorseTimingDecoder;
+import com.capaciti.morse.service.TimingEventParser;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * MorseKeyingHandler decodes Morse code keyed live over a WebSocket.
+ * <p>
+ * Clients send text frames of any size: a single {@code .} or {@code -} per key press,
+ * a space to end a letter and {@code /} to end a word, or longer fragments such as
+ * {@code "... --- ..."}. Each session keeps its own {@link MorseDecoder}, so symbols may
+ * be split across frames, and after every frame only the newly decoded characters are
+ * sent back. Nothing is sent for frames that complete no character. Work per frame is
+ * proportional to the frame, not to everything keyed so far.
+ * <p>
+ * Hand keyers can connect with {@code mode=timing} instead and send key-down and key-up
+ * durations in milliseconds, positive for tones and negative for silences, as read by
+ * {@link TimingEventParser}. The session's {@link MorseTimingDecoder} learns the
+ * operator's speed, starting from the optional {@code wpm} parameter. The first
+ * {@value #LIVE_CALIBRATION_TONES} elements are held back while the speed is learned,
+ * rather than the longer window used for whole recordings; after that a character is sent
+ * back as soon as the silence after it arrives. Malformed durations close the session
+ * with a bad data status. Either way a session holds a fixed amount of state.
+ * <p>
+ * The alphabet can be chosen with an {@code alphabet} query parameter when connecting;
+ * an unknown alphabet or mode closes the session with a policy violation.
+ * <p>
+ * Keying frames are tiny, so each session's message buffers are kept to
+ * {@code morse.live.max-message-size} and a larger frame closes the session as too big to
+ * process. Sessions idle for {@code morse.live.idle-timeout-ms} are closed by the
+ * container. The limits are set on each session as it opens rather than on the
+ * container, so they apply to whichever server is running and need none in tests.
+ */
+@Component
+public class MorseKeyingHandler extends TextWebSocketHandler {
+
+    private static final String STATE_ATTRIBUTE = MorseKeyingHandler.class.getName();
+
+    /** Opening tones a timing session learns the operator's speed from. */
+    static final int LIVE_CALIBRATION_TONES = 4;
+
+    private final int maxMessageSize;
+    private final long idleTimeoutMillis;
+
+    public MorseKeyingHandler(@Value("${morse.live.max-message-size:1024}") int maxMessageSize,
+                              @Value("${morse.live.idle-timeout-ms:300000}") long idleTimeoutMillis) {
+        this.maxMessageSize = maxMessageSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        session.setTextMessageSizeLimit(maxMessageSize);
+        session.setBinaryMessageSizeLimit(maxMessageSize);
+        if (session instanceof NativeWebSocketSession nativeSession) {
+            Session container = nativeSession.getNativeSession(Session.class);
+            if (container != null) {
+                container.setMaxIdleTimeout(idleTimeoutMillis);
+            }
+        }
+
+        KeyingState state;
+        try {
+            state = keyingState(session.getUri());
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason(e.getMessage()));
+            return;
+        }
+        session.getAttributes().put(STATE_ATTRIBUTE, state);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        KeyingState state = (KeyingState) session.getAttributes().get(STATE_ATTRIBUTE);
+        if (state == null) {
+            return; // rejected while connecting
+        }
+        if (message.getPayloadLength() > maxMessageSize) {
+            session.getAttributes().remove(STATE_ATTRIBUTE);
+            session.close(CloseStatus.TOO_BIG_TO_PROCESS);
+            return;
+        }
+        String keyed = message.getPayload();
+        state.decoded.setLength(0);
+        try {
+            state.feed(keyed);
+        } catch (IllegalArgumentException e) {
+            session.getAttributes().remove(STATE_ATTRIBUTE);
+            session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+            return;
+        }
+        if (state.decoded.length() > 0) {
+            session.sendMessage(new TextMessage(state.decoded));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        session.getAttributes().remove(STATE_ATTRIBUTE);
+    }
+
+    private static KeyingState keyingState(URI uri) {
+        var params = uri == null ? null : UriComponentsBuilder.fromUri(uri).build().getQueryParams();
+        String alphabetName = params == null ? null : params.getFirst("alphabet");
+        String mode = params == null ? null : params.getFirst("mode");
+        String wpm = params == null ? null : params.getFirst("wpm");
+
+        MorseAlphabet alphabet = alphabetName == null
+                ? MorseAlphabet.defaultAlphabet()
+                : MorseAlphabet.forName(alphabetName);
+        if (mode == null || mode.equals("symbols")) {
+            return new KeyingState(alphabet);
+        }
+        if (mode.equals("timing")) {
+            int speed = wpm == null ? AudioSettings.DEFAULT.wpm() : Integer.parseInt(wpm);
+            return new KeyingState(alphabet, MorseTimingDecoder.dotMillis(speed));
+        }
+        throw new IllegalArgumentException("Unknown keying mode: " + mode);
+    }
+
+    /**
+     * Decoder state of one session, with a buffer reused for each frame's output. Symbol
+     * sessions feed a {@link MorseDecoder}; timing sessions feed a parser that drives a
+     * {@link MorseTimingDecoder} writing into the same buffer.
+     */
+    private static final class KeyingState {
+
+        final StringBuilder decoded = new StringBuilder();
+        final MorseDecoder decoder;
+        final TimingEventParser timings;
+
+        KeyingState(MorseAlphabet alphabet) {
+            this.decoder = new MorseDecoder(alphabet);
+            this.timings = null;
+        }
+
+        KeyingState(MorseAlphabet alphabet, double dotMillis) {
+            this.decoder = null;
+            this.timings = new TimingEventParser(
+                    new MorseTimingDecoder(dotMillis, decoded, alphabet, LIVE_CALIBRATION_TONES));
+        }
+
+        void feed(String keyed) throws IOException {
+            if (timings != null) {
+                timings.feed(keyed, 0, keyed.length());
+            } else {
+                decoder.feed(keyed, 0, keyed.length(), decoded);
+            }
+        }
+    }
+}
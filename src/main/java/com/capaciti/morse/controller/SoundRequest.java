@@ -0,0 +1,93 @@
+package com.capaciti.morse.controller;
+
+import com.capaciti.morse.service.AudioEncoding;
+import com.capaciti.morse.service.AudioSettings;
+
+import java.util.Locale;
+
+/**
+ * Resolves the output format and {@link AudioSettings} of a {@code /sound} request from
+ * its parameters and {@code Accept} header. The admission filter uses the same rules, so
+ * a request is charged for exactly the audio it will receive.
+ */
+public final class SoundRequest {
+
+    /** Media type of the compact tone event list. */
+    public static final String TONE_EVENTS_MEDIA_TYPE = "application/vnd.morse.events+json";
+
+    /** Sample rate of G.711 audio unless one is given. */
+    private static final int TELEPHONY_SAMPLE_RATE = 8000;
+
+    private SoundRequest() {
+    }
+
+    /**
+     * Returns the output format: the {@code format} parameter if given, or else the one
+     * the {@code Accept} header asks for, defaulting to {@code wav}.
+     *
+     * @param format the {@code format} parameter, or null
+     * @param accept the {@code Accept} header, or null
+     * @return {@code wav}, {@code ulaw}, {@code alaw}, {@code events}, or the given format in lower case
+     */
+    public static String format(String format, String accept) {
+        if (format != null) {
+            return format.toLowerCase(Locale.ROOT);
+        }
+        if (accept == null) {
+            return "wav";
+        }
+        if (accept.contains(TONE_EVENTS_MEDIA_TYPE)) {
+            return "events";
+        }
+        if (accept.contains("audio/basic") || accept.contains("audio/x-mulaw")) {
+            return "ulaw";
+        }
+        if (accept.contains("audio/x-alaw-basic")) {
+            return "alaw";
+        }
+        return "wav";
+    }
+
+    /**
+     * Returns the settings audio in the given format is rendered with. Anything omitted
+     * falls back to {@link AudioSettings#DEFAULT}, except that G.711 audio defaults to
+     * 8 kHz and the Farnsworth speed to the character speed.
+     *
+     * @param audioFormat   the format returned by {@link #format(String, String)}
+     * @param wpm           character speed, or null
+     * @param farnsworthWpm overall speed, or null
+     * @param frequency     tone frequency in Hz, or null
+     * @param sampleRate    sample rate in Hz, or null
+     * @param bitDepth      8 or 16, or null
+     * @param rampMillis    tone ramp in milliseconds, or null
+     * @return the audio settings
+     * @throws InvalidRequestException if the format is not supported or a setting is out of range
+     */
+    public static AudioSettings settings(String audioFormat, Integer wpm, Integer farnsworthWpm, Integer frequency,
+                                         Integer sampleRate, Integer bitDepth, Integer rampMillis) {
+        AudioEncoding encoding = switch (audioFormat) {
+            case "wav", "events" -> AudioEncoding.PCM;
+            case "ulaw" -> AudioEncoding.MU_LAW;
+            case "alaw" -> AudioEncoding.A_LAW;
+            default -> throw new InvalidRequestException(
+                    new IllegalArgumentException("Unsupported audio format: " + audioFormat));
+        };
+        if (encoding != AudioEncoding.PCM && sampleRate == null) {
+            sampleRate = TELEPHONY_SAMPLE_RATE;
+        }
+        AudioSettings defaults = AudioSettings.DEFAULT;
+        int characterWpm = wpm != null ? wpm : defaults.wpm();
+        try {
+            return new AudioSettings(
+                    characterWpm,
+                    farnsworthWpm != null ? farnsworthWpm : characterWpm,
+                    frequency != null ? frequency : defaults.frequency(),
+                    sampleRate != null ? sampleRate : defaults.sampleRate(),
+                    bitDepth != null ? bitDepth : defaults.bitDepth(),
+                    rampMillis != null ? rampMillis : defaults.rampMillis(),
+                    encoding);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e);
+        }
+    }
+}
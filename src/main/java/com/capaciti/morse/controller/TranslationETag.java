@@ -0,0 +1,69 @@
+package com.capaciti.morse.controller;
+
+import com.capaciti.morse.service.MorseAlphabet;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Computes strong ETags for translation responses from their inputs alone.
+ * <p>
+ * Every GET translation is a pure function of its input, its alphabet and its rendering
+ * parameters, so hashing those identifies the response body without producing it. The
+ * tag covers the endpoint, {@link #VERSION}, the alphabet's name and fingerprint, and
+ * each part in order, with lengths so that no two different inputs run together.
+ */
+final class TranslationETag {
+
+    /**
+     * Changed whenever a code change alters the output for the same input, so tags
+     * issued by older builds no longer match.
+     */
+    static final int VERSION = 1;
+
+    /** Digest bytes kept; 128 bits make accidental collisions out of the question. */
+    private static final int TAG_BYTES = 16;
+
+    private TranslationETag() {
+    }
+
+    /**
+     * Returns the quoted strong ETag of a translation.
+     *
+     * @param endpoint the endpoint producing the response, such as {@code encode}
+     * @param alphabet the alphabet translated with
+     * @param parts    the input and any parameters that affect the output, already normalized
+     * @return the ETag, including its quotes
+     */
+    static String of(String endpoint, MorseAlphabet alphabet, Object... parts) {
+        MessageDigest digest = sha256();
+        update(digest, endpoint);
+        update(digest, VERSION + ":" + alphabet.name() + ":" + alphabet.fingerprint());
+        for (Object part : parts) {
+            update(digest, String.valueOf(part));
+        }
+        byte[] hash = digest.digest();
+        return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, TAG_BYTES)) + '"';
+    }
+
+    /**
+     * Hashes a part as its length and its raw UTF-16 chars, so even text that is not
+     * valid Unicode, such as a lone surrogate, hashes differently from its replacement.
+     */
+    private static void update(MessageDigest digest, String part) {
+        ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES + part.length() * Character.BYTES);
+        bytes.putInt(part.length()).asCharBuffer().put(part);
+        digest.update(bytes.array());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
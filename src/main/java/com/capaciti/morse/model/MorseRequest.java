@@ -6,11 +6,31 @@ package com.capaciti.morse.model;
  */
 public class MorseRequest {
 
+    /**
+     * The translation to apply to the message.
+     */
+    public enum Direction {
+        /** Plain text to Morse code. */
+        ENCODE,
+        /** Morse code to plain text. */
+        DECODE
+    }
+
     /**
      * The message to encode or decode.
      */
     private String message;
 
+    /**
+     * Whether the message is encoded or decoded. Defaults to encoding.
+     */
+    private Direction direction = Direction.ENCODE;
+
+    /**
+     * Name of the alphabet to translate with, or null for the international alphabet.
+     */
+    private String alphabet;
+
     /**
      * Default constructor.
      */
@@ -26,6 +46,17 @@ public class MorseRequest {
         this.message = message;
     }
 
+    /**
+     * Constructs a MorseRequest with the specified message and direction.
+     *
+     * @param message   The input message (plain text or Morse code).
+     * @param direction Whether the message is encoded or decoded.
+     */
+    public MorseRequest(String message, Direction direction) {
+        this.message = message;
+        this.direction = direction;
+    }
+
     /**
      * Returns the message to be processed.
      *
@@ -43,4 +74,40 @@ public class MorseRequest {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    /**
+     * Returns whether the message is encoded or decoded.
+     *
+     * @return The translation direction.
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Sets whether the message is encoded or decoded.
+     *
+     * @param direction The translation direction to set.
+     */
+    public void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Returns the name of the alphabet to translate with.
+     *
+     * @return The alphabet name, or null for the international alphabet.
+     */
+    public String getAlphabet() {
+        return alphabet;
+    }
+
+    /**
+     * Sets the name of the alphabet to translate with.
+     *
+     * @param alphabet The alphabet name, such as "cyrillic", or null for the international alphabet.
+     */
+    public void setAlphabet(String alphabet) {
+        this.alphabet = alphabet;
+    }
 }
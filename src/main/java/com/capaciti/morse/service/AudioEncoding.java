@@ -0,0 +1,31 @@
+package com.capaciti.morse.service;
+
+/**
+ * Sample encodings supported by {@link MorseAudioRenderer}, each written as a WAV file.
+ */
+public enum AudioEncoding {
+
+    /** Linear PCM, 8-bit unsigned or 16-bit signed depending on {@link AudioSettings#bitDepth()}. */
+    PCM(1),
+
+    /** 8-bit G.711 mu-law, as used by North American and Japanese telephony. */
+    MU_LAW(7),
+
+    /** 8-bit G.711 A-law, as used by European telephony. */
+    A_LAW(6);
+
+    private final int wavFormatTag;
+
+    AudioEncoding(int wavFormatTag) {
+        this.wavFormatTag = wavFormatTag;
+    }
+
+    /**
+     * Returns the {@code wFormatTag} value identifying this encoding in a WAV fmt chunk.
+     *
+     * @return the WAV format tag
+     */
+    public int wavFormatTag() {
+        return wavFormatTag;
+    }
+}
@@ -0,0 +1,92 @@
+package com.capaciti.morse.service;
+
+/**
+ * AudioSettings describes how Morse code is rendered as audio.
+ *
+ * @param wpm           character speed in words per minute; one dot lasts {@code 1.2 / wpm} seconds
+ * @param farnsworthWpm overall speed in words per minute. When lower than {@code wpm}, letter
+ *                      and word gaps are stretched (Farnsworth timing) while characters keep
+ *                      their full speed
+ * @param frequency     tone frequency in Hz
+ * @param sampleRate    samples per second
+ * @param bitDepth      bits per sample: 8 (unsigned) or 16 (signed little-endian) for PCM,
+ *                      and always 8 for the companded encodings
+ * @param rampMillis    length of the raised-cosine fade at each end of a tone, which
+ *                      suppresses key clicks
+ * @param encoding      how samples are stored in the WAV data chunk
+ */
+public record AudioSettings(int wpm, int farnsworthWpm, int frequency, int sampleRate,
+                            int bitDepth, int rampMillis, AudioEncoding encoding) {
+
+    /** 12 WPM (100 ms dots), 800 Hz, 44.1 kHz 8-bit PCM mono with a 5 ms ramp. */
+    public static final AudioSettings DEFAULT = new AudioSettings(12, 12, 800, 44100, 8, 5, AudioEncoding.PCM);
+
+    public AudioSettings {
+        requireRange("wpm", wpm, 1, 100);
+        requireRange("farnsworthWpm", farnsworthWpm, 1, wpm);
+        requireRange("sampleRate", sampleRate, 4000, 192000);
+        requireRange("frequency", frequency, 20, sampleRate / 2 - 1);
+        if (bitDepth != 8 && bitDepth != 16) {
+            throw new IllegalArgumentException("bitDepth must be 8 or 16, was " + bitDepth);
+        }
+        requireRange("rampMillis", rampMillis, 0, 50);
+        if (encoding == null) {
+            throw new IllegalArgumentException("encoding must not be null");
+        }
+        if (encoding != AudioEncoding.PCM && bitDepth != 8) {
+            throw new IllegalArgumentException(encoding + " audio is always 8-bit, was " + bitDepth);
+        }
+    }
+
+    /**
+     * Returns the number of bytes per sample.
+     *
+     * @return 1 for 8-bit audio, 2 for 16-bit audio
+     */
+    public int bytesPerSample() {
+        return bitDepth / 8;
+    }
+
+    /**
+     * Returns the length of one dot in samples.
+     *
+     * @return the dot length in samples
+     */
+    public int dotSamples() {
+        return Math.round(sampleRate * 1.2f / wpm);
+    }
+
+    /**
+     * Returns the gap between letters in samples, stretched under Farnsworth timing.
+     *
+     * @return the letter gap in samples
+     */
+    public int letterGapSamples() {
+        return farnsworthWpm < wpm ? (int) Math.round(farnsworthDelay() * 3 / 19) : 3 * dotSamples();
+    }
+
+    /**
+     * Returns the gap between words in samples, stretched under Farnsworth timing.
+     *
+     * @return the word gap in samples
+     */
+    public int wordGapSamples() {
+        return farnsworthWpm < wpm ? (int) Math.round(farnsworthDelay() * 7 / 19) : 7 * dotSamples();
+    }
+
+    /**
+     * Total inter-character delay per PARIS word, in samples, that slows the character
+     * speed down to the overall Farnsworth speed (ARRL formula).
+     */
+    private double farnsworthDelay() {
+        double seconds = (60.0 * wpm - 37.2 * farnsworthWpm) / (wpm * farnsworthWpm);
+        return seconds * sampleRate;
+    }
+
+    private static void requireRange(String name, int value, int min, int max) {
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(
+                    name + " must be between " + min + " and " + max + ", was " + value);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.capaciti.morse.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * BoundedLruCache is a least-recently-used cache bounded both by entry count and by
+ * total weight, so a few large values (such as audio) cannot crowd out memory the way
+ * a count limit alone would allow.
+ * <p>
+ * Values are computed outside the lock, so a slow loader never blocks readers; two
+ * threads missing on the same key may both compute it. Values heavier than the whole
+ * weight budget are returned but not cached. Hit, miss and eviction counts are kept
+ * for monitoring.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedLruCache<K, V> {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries maximum number of entries
+     * @param maxWeight  maximum total weight of all entries
+     * @param weigher    computes the weight, typically in bytes, of an entry
+     */
+    public BoundedLruCache(int maxEntries, long maxWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+        if (maxEntries < 1 || maxWeight < 1) {
+            throw new IllegalArgumentException("Cache limits must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the cached value for a key, computing and caching it on a miss.
+     *
+     * @param key    the key to look up
+     * @param loader computes the value when it is not cached
+     * @return the cached or newly computed value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value;
+        synchronized (this) {
+            value = map.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = loader.apply(key);
+        put(key, value);
+        return value;
+    }
+
+    private synchronized void put(K key, V value) {
+        long entryWeight = weigher.applyAsLong(key, value);
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        V previous = map.put(key, value);
+        weight += entryWeight;
+        if (previous != null) {
+            weight -= weigher.applyAsLong(key, previous);
+        }
+
+        Iterator<Map.Entry<K, V>> eldest = map.entrySet().iterator();
+        while (map.size() > maxEntries || weight > maxWeight) {
+            Map.Entry<K, V> entry = eldest.next();
+            weight -= weigher.applyAsLong(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes all entries. Counters are kept.
+     */
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+
+    /** @return the number of cached entries */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /** @return the total weight of cached entries */
+    public synchronized long weight() {
+        return weight;
+    }
+
+    /** @return the number of lookups served from the cache */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /** @return the number of lookups that had to compute their value */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /** @return the number of entries evicted to respect the limits */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,77 @@
+package com.capaciti.morse.service;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A read-only {@link CharSequence} view of bytes, one character per byte, so the
+ * character-based encoder and decoder can work on request bytes without first copying
+ * them into a {@code String}. ASCII bytes read as themselves and higher bytes as
+ * Latin-1, which neither Morse symbols nor prosign names contain.
+ */
+final class ByteText implements CharSequence {
+
+    private final byte[] array;
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Views the remaining bytes of a buffer without changing its position.
+     */
+    ByteText(ByteBuffer bytes) {
+        if (bytes.hasArray()) {
+            this.array = bytes.array();
+            this.buffer = null;
+            this.offset = bytes.arrayOffset() + bytes.position();
+        } else {
+            this.array = null;
+            this.buffer = bytes;
+            this.offset = bytes.position();
+        }
+        this.length = bytes.remaining();
+    }
+
+    private ByteText(byte[] array, ByteBuffer buffer, int offset, int length) {
+        this.array = array;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Returns the byte at the given index, sign-extended, so ASCII is non-negative.
+     */
+    byte byteAt(int index) {
+        return array != null ? array[offset + index] : buffer.get(offset + index);
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) (byteAt(index) & 0xFF);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new ByteText(array, buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = charAt(i);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,182 @@
+package com.capaciti.morse.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+import com.capaciti.morse.config.MorseCacheProperties;
+import com.capaciti.morse.model.MorseRequest;
+import com.capaciti.morse.model.MorseResponse;
+
+/**
+ * Caching decorator for {@link MorseCodeService}.
+ * <p>
+ * Encode, decode and audio results are kept in separate {@link BoundedLruCache}s, each
+ * bounded by entry count and by approximate size in bytes. Cached audio is held as
+ * read-only {@link ByteBuffer}s that are handed out without copying. Streaming and
+ * byte methods pass straight through, since their inputs are too large to be worth
+ * caching or would need copying to serve as keys.
+ * <p>
+ * Each entry also keeps how many characters or symbols in it fell back to {@code ?}.
+ * The delegate counts them when it computes an entry, and a hit reports the stored
+ * count to {@link MorseService}, so the unknown-character metrics see every request
+ * exactly once whether or not it was cached.
+ */
+public class CachingMorseCodeService implements MorseCodeService {
+
+    private final MorseCodeService delegate;
+    private final MorseService morseService;
+    private final BoundedLruCache<TextKey, Counted<String>> encodeCache;
+    private final BoundedLruCache<TextKey, Counted<String>> decodeCache;
+    private final BoundedLruCache<AudioKey, Counted<ByteBuffer>> audioCache;
+
+    public CachingMorseCodeService(MorseCodeService delegate,
+                                   MorseService morseService,
+                                   MorseCacheProperties.Limits encode,
+                                   MorseCacheProperties.Limits decode,
+                                   MorseCacheProperties.Limits audio) {
+        this.delegate = delegate;
+        this.morseService = morseService;
+        this.encodeCache = new BoundedLruCache<>(encode.getMaxEntries(), encode.getMaxBytes(),
+                (key, entry) -> 2L * (key.text().length() + entry.value().length()));
+        this.decodeCache = new BoundedLruCache<>(decode.getMaxEntries(), decode.getMaxBytes(),
+                (key, entry) -> 2L * (key.text().length() + entry.value().length()));
+        this.audioCache = new BoundedLruCache<>(audio.getMaxEntries(), audio.getMaxBytes(),
+                (key, entry) -> 2L * key.text().length() + entry.value().capacity());
+    }
+
+    @Override
+    public String encode(String input, MorseAlphabet alphabet) {
+        return lookup(encodeCache, new TextKey(input, alphabet), key -> new Counted<>(
+                delegate.encode(key.text(), key.alphabet()),
+                morseService.unknownCharacters(key.text(), key.alphabet())),
+                morseService::recordUnknownEncoded);
+    }
+
+    @Override
+    public String decode(String morseCode, MorseAlphabet alphabet) {
+        return lookup(decodeCache, new TextKey(morseCode, alphabet), key -> new Counted<>(
+                delegate.decode(key.text(), key.alphabet()),
+                morseService.unknownSymbols(key.text(), key.alphabet())),
+                morseService::recordUnknownDecoded);
+    }
+
+    @Override
+    public ByteBuffer encode(ByteBuffer input, MorseAlphabet alphabet) {
+        return delegate.encode(input, alphabet);
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer morseCode, MorseAlphabet alphabet) {
+        return delegate.decode(morseCode, alphabet);
+    }
+
+    @Override
+    public void encode(Reader in, Writer out, MorseAlphabet alphabet) throws IOException {
+        delegate.encode(in, out, alphabet);
+    }
+
+    @Override
+    public void decode(Reader in, Writer out, MorseAlphabet alphabet) throws IOException {
+        delegate.decode(in, out, alphabet);
+    }
+
+    @Override
+    public List<MorseResponse> translateBatch(List<MorseRequest> requests) {
+        return delegate.translateBatch(requests);
+    }
+
+    @Override
+    public byte[] generateMorseAudio(String text) {
+        return generateMorseAudio(text, AudioSettings.DEFAULT);
+    }
+
+    @Override
+    public byte[] generateMorseAudio(String text, AudioSettings settings) {
+        ByteBuffer audio = generateMorseAudioBuffer(text, settings);
+        byte[] copy = new byte[audio.remaining()];
+        audio.get(copy); // callers own byte arrays, so the cached audio is copied
+        return copy;
+    }
+
+    @Override
+    public ByteBuffer generateMorseAudioBuffer(String text, AudioSettings settings) {
+        return lookup(audioCache, new AudioKey(text, settings), key -> new Counted<>(
+                delegate.generateMorseAudioBuffer(key.text(), key.settings()),
+                morseService.unknownCharacters(key.text(), MorseAlphabet.defaultAlphabet())),
+                morseService::recordUnknownEncoded).duplicate();
+    }
+
+    @Override
+    public long morseAudioLength(String text, AudioSettings settings) {
+        return delegate.morseAudioLength(text, settings);
+    }
+
+    @Override
+    public void writeMorseAudio(String text, AudioSettings settings, OutputStream out) throws IOException {
+        delegate.writeMorseAudio(text, settings, out);
+    }
+
+    @Override
+    public String generateToneEvents(String text, AudioSettings settings) {
+        return delegate.generateToneEvents(text, settings);
+    }
+
+    @Override
+    public void decodeMorseAudio(InputStream wav, int frequency, Writer out) throws IOException {
+        delegate.decodeMorseAudio(wav, frequency, out);
+    }
+
+    @Override
+    public void decodeTimings(Reader events, int wpm, Writer out, MorseAlphabet alphabet) throws IOException {
+        delegate.decodeTimings(events, wpm, out, alphabet);
+    }
+
+    /**
+     * Returns a cached value, computing it on a miss. The delegate has already counted
+     * the unknown characters of a value it just computed, so only a hit reports them.
+     */
+    private static <K, V> V lookup(BoundedLruCache<K, Counted<V>> cache, K key,
+                                   Function<? super K, Counted<V>> loader, LongConsumer unknownCounter) {
+        boolean[] computed = new boolean[1];
+        Counted<V> entry = cache.get(key, k -> {
+            computed[0] = true;
+            return loader.apply(k);
+        });
+        if (!computed[0]) {
+            unknownCounter.accept(entry.unknown());
+        }
+        return entry.value();
+    }
+
+    /** @return the cache of encode results */
+    public BoundedLruCache<?, ?> encodeCache() {
+        return encodeCache;
+    }
+
+    /** @return the cache of decode results */
+    public BoundedLruCache<?, ?> decodeCache() {
+        return decodeCache;
+    }
+
+    /** @return the cache of rendered audio */
+    public BoundedLruCache<?, ?> audioCache() {
+        return audioCache;
+    }
+
+    /** A cached result and how many of its characters or symbols fell back to {@code ?}. */
+    private record Counted<V>(V value, long unknown) {
+    }
+
+    private record TextKey(String text, MorseAlphabet alphabet) {
+    }
+
+    private record AudioKey(String text, AudioSettings settings) {
+    }
+}
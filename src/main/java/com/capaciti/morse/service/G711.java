@@ -0,0 +1,73 @@
+package com.capaciti.morse.service;
+
+/**
+ * G.711 mu-law and A-law companding between 16-bit linear samples and 8-bit codes,
+ * in both directions.
+ */
+final class G711 {
+
+    private static final int MU_LAW_BIAS = 0x84;
+    private static final int CLIP = 32635;
+
+    private G711() {
+    }
+
+    /**
+     * Compresses a 16-bit linear sample to an 8-bit mu-law code.
+     */
+    static byte linearToMuLaw(short sample) {
+        int s = sample;
+        int sign = (s >> 8) & 0x80;
+        if (sign != 0) {
+            s = -s;
+        }
+        s = Math.min(s, CLIP) + MU_LAW_BIAS;
+        int exponent = 31 - Integer.numberOfLeadingZeros(s >> 7);
+        int mantissa = (s >> (exponent + 3)) & 0x0F;
+        return (byte) ~(sign | (exponent << 4) | mantissa);
+    }
+
+    /**
+     * Compresses a 16-bit linear sample to an 8-bit A-law code.
+     */
+    static byte linearToALaw(short sample) {
+        int s = sample;
+        int sign = (~s >> 8) & 0x80;
+        if (sign == 0) {
+            s = -s - 1;
+        }
+        s = Math.min(s, CLIP);
+        int compressed;
+        if (s >= 256) {
+            int exponent = 32 - Integer.numberOfLeadingZeros(s >> 8);
+            int mantissa = (s >> (exponent + 3)) & 0x0F;
+            compressed = (exponent << 4) | mantissa;
+        } else {
+            compressed = s >> 4;
+        }
+        return (byte) (compressed ^ (sign ^ 0x55));
+    }
+
+    /**
+     * Expands an 8-bit mu-law code to a 16-bit linear sample.
+     */
+    static short muLawToLinear(byte code) {
+        int u = ~code;
+        int exponent = (u >> 4) & 0x07;
+        int magnitude = ((((u & 0x0F) << 3) + MU_LAW_BIAS) << exponent) - MU_LAW_BIAS;
+        return (short) ((u & 0x80) != 0 ? -magnitude : magnitude);
+    }
+
+    /**
+     * Expands an 8-bit A-law code to a 16-bit linear sample.
+     */
+    static short aLawToLinear(byte code) {
+        int a = code ^ 0x55;
+        int exponent = (a >> 4) & 0x07;
+        int magnitude = ((a & 0x0F) << 4) + 8;
+        if (exponent > 0) {
+            magnitude = (magnitude + 0x100) << (exponent - 1);
+        }
+        return (short) ((a & 0x80) != 0 ? magnitude : -magnitude);
+    }
+}
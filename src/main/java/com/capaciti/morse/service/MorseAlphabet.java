@@ -0,0 +1,405 @@
+package com.capaciti.morse.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * MorseAlphabet maps characters and procedural signals (prosigns) to Morse code.
+ * <p>
+ * Alphabets are defined in {@code alphabets/<name>.txt} resource files and compiled once,
+ * on first use, into dense primitive tables: a {@code String[]} indexed by character for
+ * encoding and a {@code char[]} indexed by {@link MorseDecoder#treeIndex(CharSequence)} for
+ * decoding. Prosigns such as {@code <SK>} are written in angle brackets and stored in the
+ * decode table as private-use characters that stand for their text. Adding alphabets
+ * therefore costs nothing on the encode and decode paths.
+ * <p>
+ * {@link #defaultAlphabet()} is the international alphabet with ITU punctuation and
+ * prosigns. Instances are immutable and shared between threads.
+ */
+public final class MorseAlphabet {
+
+    /** Name of the international alphabet, used when no alphabet is chosen. */
+    public static final String DEFAULT_NAME = "itu";
+
+    /** Symbol emitted for characters that have no Morse representation. */
+    static final String UNKNOWN_SYMBOL = "?";
+    static final byte[] UNKNOWN_SYMBOL_BYTES = {'?'};
+
+    /** Decode table entries from here on stand for prosigns rather than characters. */
+    static final char PROSIGN_BASE = '\uE000';
+
+    /** Longest code accepted, which bounds the decode table at {@code 2 << MAX_CODE_LENGTH}. */
+    private static final int MAX_CODE_LENGTH = 12;
+
+    private static final ConcurrentMap<String, MorseAlphabet> alphabets = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final String[] encodeTable;
+    private final byte[][] asciiEncodeTable;
+    private final char[] decodeTable;
+    private final String[] prosigns;
+    private final String[] prosignCodes;
+    private final byte[][] asciiProsignCodes;
+    private final int maxProsignLength;
+    private final int fingerprint;
+
+    private MorseAlphabet(String name, List<String[]> definitions) {
+        this.name = name;
+
+        int hash = name.hashCode();
+        for (String[] definition : definitions) {
+            hash = 31 * (31 * hash + definition[0].hashCode()) + definition[1].hashCode();
+        }
+        fingerprint = hash;
+
+        int maxChar = 127;
+        int maxCodeLength = 1;
+        List<String[]> prosignDefinitions = new ArrayList<>();
+        for (String[] definition : definitions) {
+            String text = definition[0];
+            if (text.length() == 1) {
+                maxChar = Math.max(maxChar, text.charAt(0));
+            } else if (!containsProsign(prosignDefinitions, text)) {
+                prosignDefinitions.add(definition);
+            }
+            maxCodeLength = Math.max(maxCodeLength, definition[1].length());
+        }
+
+        // Encode table: first definition wins, then lower case follows upper case and
+        // accented letters follow their base letter
+        encodeTable = new String[maxChar + 1];
+        Arrays.fill(encodeTable, UNKNOWN_SYMBOL);
+        encodeTable[' '] = "/";
+        for (String[] definition : definitions) {
+            if (definition[0].length() == 1 && encodeTable[definition[0].charAt(0)] == UNKNOWN_SYMBOL) {
+                encodeTable[definition[0].charAt(0)] = definition[1];
+            }
+        }
+        for (int c = 0; c < encodeTable.length; c++) {
+            if (encodeTable[c] == UNKNOWN_SYMBOL) {
+                // ASCII is its own decomposition; skipping it keeps the normalizer's data
+                // unloaded for alphabets that stop at ASCII, such as the default one
+                char base = c < 0x80 ? (char) c
+                        : Normalizer.normalize(String.valueOf((char) c), Normalizer.Form.NFD).charAt(0);
+                char upper = Character.toUpperCase(base);
+                if (upper < encodeTable.length) {
+                    encodeTable[c] = encodeTable[upper];
+                }
+            }
+        }
+
+        prosigns = new String[prosignDefinitions.size()];
+        prosignCodes = new String[prosignDefinitions.size()];
+        int longest = 0;
+        for (int i = 0; i < prosigns.length; i++) {
+            prosigns[i] = prosignDefinitions.get(i)[0];
+            prosignCodes[i] = prosignDefinitions.get(i)[1];
+            longest = Math.max(longest, prosigns[i].length());
+        }
+        maxProsignLength = longest;
+
+        // The same tables as ASCII bytes, with one array per distinct symbol
+        Map<String, byte[]> bytes = new HashMap<>();
+        bytes.put(UNKNOWN_SYMBOL, UNKNOWN_SYMBOL_BYTES);
+        asciiEncodeTable = new byte[encodeTable.length][];
+        for (int c = 0; c < encodeTable.length; c++) {
+            asciiEncodeTable[c] = bytes.computeIfAbsent(encodeTable[c], MorseAlphabet::ascii);
+        }
+        asciiProsignCodes = new byte[prosignCodes.length][];
+        for (int i = 0; i < prosignCodes.length; i++) {
+            asciiProsignCodes[i] = bytes.computeIfAbsent(prosignCodes[i], MorseAlphabet::ascii);
+        }
+
+        // Decode table: first definition of each code wins
+        decodeTable = new char[2 << maxCodeLength];
+        for (String[] definition : definitions) {
+            int index = MorseDecoder.treeIndex(definition[1]);
+            if (decodeTable[index] == 0) {
+                String text = definition[0];
+                decodeTable[index] = text.length() == 1
+                        ? text.charAt(0)
+                        : (char) (PROSIGN_BASE + prosignIndex(text));
+            }
+        }
+    }
+
+    /**
+     * Returns the international alphabet.
+     *
+     * @return the default alphabet
+     */
+    public static MorseAlphabet defaultAlphabet() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    /**
+     * Holds the default alphabet, so it is compiled on first use rather than whenever
+     * this class is initialized.
+     */
+    private static final class DefaultHolder {
+        static final MorseAlphabet DEFAULT = forName(DEFAULT_NAME);
+    }
+
+    /**
+     * Returns the alphabet with the given name, compiling it on first use.
+     *
+     * @param name the alphabet name, such as {@code itu}, {@code cyrillic} or {@code greek}
+     * @return the alphabet
+     * @throws IllegalArgumentException if there is no alphabet with that name
+     */
+    public static MorseAlphabet forName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Alphabet name must not be null");
+        }
+        MorseAlphabet alphabet = alphabets.get(name);
+        if (alphabet != null) {
+            return alphabet;
+        }
+        if (!isName(name)) {
+            throw new IllegalArgumentException("Unknown alphabet: " + name);
+        }
+        return alphabets.computeIfAbsent(name, key -> {
+            List<String[]> definitions = new ArrayList<>();
+            readDefinitions(key, definitions, new HashSet<>());
+            return new MorseAlphabet(key, definitions);
+        });
+    }
+
+    /**
+     * Returns the name of this alphabet.
+     *
+     * @return the alphabet name
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns a hash of this alphabet's definitions. It changes when the alphabet files
+     * are edited, so results cached under it are not reused after a redeployment.
+     *
+     * @return the fingerprint of the definitions
+     */
+    public int fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the Morse code for a character, or {@code ?} if it has none.
+     */
+    String symbolFor(char ch) {
+        if (ch >= encodeTable.length) {
+            // Characters such as U+0131 (dotless i) upper-case into the table
+            ch = Character.toUpperCase(ch);
+            if (ch >= encodeTable.length) {
+                return UNKNOWN_SYMBOL;
+            }
+        }
+        return encodeTable[ch];
+    }
+
+    /**
+     * Returns the Morse code for a character as ASCII bytes, or {@link #UNKNOWN_SYMBOL_BYTES}.
+     */
+    byte[] asciiSymbolFor(char ch) {
+        if (ch >= asciiEncodeTable.length) {
+            ch = Character.toUpperCase(ch);
+            if (ch >= asciiEncodeTable.length) {
+                return UNKNOWN_SYMBOL_BYTES;
+            }
+        }
+        return asciiEncodeTable[ch];
+    }
+
+    /**
+     * Returns the prosign written at the given position, ignoring case, or {@code -1}.
+     * Only called when the character there is {@code <}, so plain text pays nothing.
+     */
+    int prosignAt(CharSequence text, int index) {
+        for (int i = 0; i < prosigns.length; i++) {
+            String prosign = prosigns[i];
+            int length = prosign.length();
+            if (index + length <= text.length() && regionMatches(text, index, prosign)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    String prosignCode(int prosign) {
+        return prosignCodes[prosign];
+    }
+
+    byte[] asciiProsignCode(int prosign) {
+        return asciiProsignCodes[prosign];
+    }
+
+    int prosignLength(int prosign) {
+        return prosigns[prosign].length();
+    }
+
+    /**
+     * Returns how many characters before {@code length} may be the start of a prosign
+     * that continues beyond it, so callers that cut text there can move the cut back.
+     */
+    int openProsignLength(CharSequence text, int length) {
+        for (int i = length - 1; i >= 0 && i > length - maxProsignLength; i--) {
+            if (text.charAt(i) == '>') {
+                return 0;
+            }
+            if (text.charAt(i) == '<') {
+                return length - i;
+            }
+        }
+        return 0;
+    }
+
+    char[] decodeTable() {
+        return decodeTable;
+    }
+
+    String[] prosigns() {
+        return prosigns;
+    }
+
+    private int prosignIndex(String text) {
+        for (int i = 0; i < prosigns.length; i++) {
+            if (prosigns[i].equalsIgnoreCase(text)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unregistered prosign " + text);
+    }
+
+    /** Compares text after the opening bracket with an upper-case prosign. */
+    private static boolean regionMatches(CharSequence text, int index, String prosign) {
+        for (int j = 1; j < prosign.length(); j++) {
+            char a = text.charAt(index + j);
+            char b = prosign.charAt(j);
+            if (a != b && Character.toUpperCase(a) != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads an alphabet file and the files it includes, in order.
+     */
+    private static void readDefinitions(String name, List<String[]> definitions, Set<String> visiting) {
+        if (!visiting.add(name)) {
+            throw new IllegalStateException("Alphabet " + name + " includes itself");
+        }
+        String resource = "/alphabets/" + name + ".txt";
+        InputStream in = MorseAlphabet.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("Unknown alphabet: " + name);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            for (int number = 1; (line = reader.readLine()) != null; number++) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = fields(line);
+                if (fields.length == 2 && fields[0].equals("@include")) {
+                    readDefinitions(fields[1], definitions, visiting);
+                } else if (fields.length == 2 && isText(fields[0]) && isCode(fields[1])
+                        && fields[1].length() <= MAX_CODE_LENGTH) {
+                    if (fields[0].length() > 1) {
+                        fields[0] = fields[0].toUpperCase(Locale.ROOT);
+                    }
+                    definitions.add(fields);
+                } else {
+                    throw new IllegalStateException("Invalid definition at " + resource + ":" + number + ": " + line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + resource, e);
+        }
+        visiting.remove(name);
+    }
+
+    private static boolean containsProsign(List<String[]> prosignDefinitions, String text) {
+        for (String[] definition : prosignDefinitions) {
+            if (definition[0].equalsIgnoreCase(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits a stripped line at runs of whitespace. Alphabet files are read at startup,
+     * so this avoids compiling a regular expression for it.
+     */
+    private static String[] fields(String line) {
+        List<String> fields = new ArrayList<>(2);
+        int start = -1;
+        for (int i = 0; i <= line.length(); i++) {
+            boolean space = i == line.length() || Character.isWhitespace(line.charAt(i));
+            if (space && start >= 0) {
+                fields.add(line.substring(start, i));
+                start = -1;
+            } else if (!space && start < 0) {
+                start = i;
+            }
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    /** Alphabet names are lower-case letters, digits, {@code _} and {@code -}. */
+    private static boolean isName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Codes are one or more dots and dashes. */
+    private static boolean isCode(String code) {
+        if (code.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) != '.' && code.charAt(i) != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String symbol) {
+        return symbol.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isText(String text) {
+        if (text.length() == 1) {
+            char c = text.charAt(0);
+            return c != ' ' && (c < PROSIGN_BASE || c > '\uF8FF'); // private use is reserved for prosigns
+        }
+        return text.length() > 2 && text.charAt(0) == '<' && text.charAt(text.length() - 1) == '>';
+    }
+}
@@ -0,0 +1,277 @@
+package com.capaciti.morse.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MorseAudioDecoder reads Morse code audio from a WAV stream and writes the decoded text.
+ * <p>
+ * Samples are processed in short frames of about two milliseconds. For each frame a
+ * Goertzel filter measures the power at the expected tone frequency, and the frame counts
+ * as keyed when that tone carries most of the frame's energy and the level is above a
+ * small floor. Judging the share of energy rather than an absolute level makes detection
+ * independent of recording volume. A key change must last two frames before it is
+ * accepted, which filters out clicks without shifting durations, and the resulting tone
+ * and silence lengths are classified by a {@link MorseTimingDecoder}.
+ * <p>
+ * Audio is read through a fixed-size buffer and nothing is kept per frame, so memory use
+ * does not depend on recording length. Linear PCM at 8 or 16 bits and G.711 mu-law and
+ * A-law are supported; for multi-channel audio only the first channel is used.
+ * <p>
+ * Output of {@link MorseAudioRenderer} decodes back to the text it was rendered from
+ * (upper-cased and trimmed), except that characters without a Morse symbol, which
+ * are silent in the audio, are missing.
+ */
+public final class MorseAudioDecoder {
+
+    /** Size of the buffer used to read WAV data. */
+    private static final int STREAM_CHUNK_SIZE = 16 * 1024;
+
+    /** Frames per second of audio; each frame yields one keyed or unkeyed decision. */
+    private static final int FRAMES_PER_SECOND = 500;
+    private static final int MIN_FRAME_SAMPLES = 16;
+
+    /** Consecutive frames a key change must last before it is accepted. */
+    private static final int DEBOUNCE_FRAMES = 2;
+
+    /** Share of a frame's energy that must lie at the tone frequency for it to count as keyed. */
+    private static final double TONE_RATIO = 0.5;
+
+    /** Mean square level, relative to full scale, below which a frame is silent (-50 dBFS). */
+    private static final double SILENCE_FLOOR = 1e-5;
+
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+    /** Most channels a WAV file can assign to speakers; anything above is not a recording. */
+    private static final int MAX_CHANNELS = 18;
+
+    private final int frequency;
+
+    /**
+     * Creates a decoder listening for tones at the given frequency.
+     *
+     * @param frequency the tone frequency in Hz
+     */
+    public MorseAudioDecoder(int frequency) {
+        if (frequency < 20) {
+            throw new IllegalArgumentException("frequency must be at least 20, was " + frequency);
+        }
+        this.frequency = frequency;
+    }
+
+    /**
+     * Decodes a WAV stream, writing text as each symbol is recognised. The initial dot
+     * length is taken from {@link AudioSettings#DEFAULT} and adapts to the sender.
+     *
+     * @param wav the WAV stream, read up to the end of its data chunk
+     * @param out the destination for the decoded text
+     * @throws IOException              if reading or writing fails
+     * @throws IllegalArgumentException if the stream is not a supported WAV file
+     */
+    public void decode(InputStream wav, Appendable out) throws IOException {
+        Format format = readHeader(wav);
+        if (frequency >= format.sampleRate / 2) {
+            throw new IllegalArgumentException("frequency " + frequency
+                    + " Hz cannot be detected at a sample rate of " + format.sampleRate + " Hz");
+        }
+
+        double initialDot = format.sampleRate * 1.2 / AudioSettings.DEFAULT.wpm();
+        MorseTimingDecoder timing = new MorseTimingDecoder(initialDot, out);
+
+        int frameSamples = Math.max(MIN_FRAME_SAMPLES, format.sampleRate / FRAMES_PER_SECOND);
+        double coeff = 2 * Math.cos(2 * Math.PI * frequency / format.sampleRate);
+
+        // Goertzel state for the current frame
+        double s1 = 0;
+        double s2 = 0;
+        double energy = 0;
+        int count = 0;
+
+        // Key state: the accepted state, its length so far, and a run of disagreeing frames
+        boolean keyed = false;
+        long runLength = 0;
+        long candidateLength = 0;
+        int candidateFrames = 0;
+
+        int blockAlign = format.blockAlign;
+        byte[] buffer = new byte[Math.max(1, STREAM_CHUNK_SIZE / blockAlign) * blockAlign];
+        long remaining = format.dataLength;
+        boolean end = false;
+        while (!end) {
+            int want = (int) Math.min(buffer.length, remaining);
+            int n = wav.readNBytes(buffer, 0, want);
+            remaining -= n;
+            end = n == 0 || n < want || remaining == 0;
+            n -= n % blockAlign;
+
+            for (int pos = 0; pos <= n; pos += blockAlign) {
+                boolean last = pos == n;
+                if (!last) {
+                    double x = format.sample(buffer, pos);
+                    double s0 = x + coeff * s1 - s2;
+                    s2 = s1;
+                    s1 = s0;
+                    energy += x * x;
+                    count++;
+                }
+                if (count == frameSamples || (last && end && count > 0)) {
+                    double power = s1 * s1 + s2 * s2 - coeff * s1 * s2;
+                    boolean frameKeyed = energy > SILENCE_FLOOR * count
+                            && 2 * power > TONE_RATIO * count * energy;
+                    if (frameKeyed == keyed) {
+                        runLength += candidateLength + count;
+                        candidateLength = 0;
+                        candidateFrames = 0;
+                    } else {
+                        candidateLength += count;
+                        if (++candidateFrames == DEBOUNCE_FRAMES) {
+                            emit(timing, keyed, runLength);
+                            keyed = frameKeyed;
+                            runLength = candidateLength;
+                            candidateLength = 0;
+                            candidateFrames = 0;
+                        }
+                    }
+                    s1 = 0;
+                    s2 = 0;
+                    energy = 0;
+                    count = 0;
+                }
+            }
+        }
+        if (keyed) {
+            emit(timing, true, runLength);
+        }
+        timing.finish();
+    }
+
+    private static void emit(MorseTimingDecoder timing, boolean keyed, long length) throws IOException {
+        if (keyed) {
+            timing.tone(length);
+        } else if (length > 0) {
+            timing.silence(length);
+        }
+    }
+
+    /**
+     * Reads the RIFF header up to the start of the data chunk.
+     */
+    private static Format readHeader(InputStream in) throws IOException {
+        byte[] header = new byte[12];
+        readFully(in, header, 12);
+        if (!ascii(header, 0).equals("RIFF") || !ascii(header, 8).equals("WAVE")) {
+            throw new IllegalArgumentException("Not a WAV file");
+        }
+
+        Format format = null;
+        byte[] chunk = new byte[8];
+        while (true) {
+            readFully(in, chunk, 8);
+            String id = ascii(chunk, 0);
+            long size = Integer.toUnsignedLong(intLE(chunk, 4));
+            if (id.equals("data")) {
+                if (format == null) {
+                    throw new IllegalArgumentException("WAV data chunk precedes its format");
+                }
+                // Streamed recordings may leave the size unset; read to the end instead
+                format.dataLength = size == 0 || size == 0xFFFFFFFFL ? Long.MAX_VALUE : size;
+                return format;
+            }
+            if (id.equals("fmt ")) {
+                if (size < 16 || size > 64) {
+                    throw new IllegalArgumentException("Unsupported WAV format chunk");
+                }
+                byte[] fmt = new byte[(int) size];
+                readFully(in, fmt, fmt.length);
+                format = new Format(fmt);
+                size = 0;
+            }
+            in.skipNBytes(size + (size & 1)); // chunks are padded to an even size
+        }
+    }
+
+    private static void readFully(InputStream in, byte[] bytes, int length) throws IOException {
+        if (in.readNBytes(bytes, 0, length) < length) {
+            throw new EOFException("Truncated WAV header");
+        }
+    }
+
+    private static String ascii(byte[] bytes, int offset) {
+        return new String(bytes, offset, 4, StandardCharsets.US_ASCII);
+    }
+
+    private static int intLE(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8
+                | (bytes[offset + 2] & 0xFF) << 16 | (bytes[offset + 3] & 0xFF) << 24;
+    }
+
+    private static int shortLE(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * Sample layout from the WAV format chunk, and how to read one sample of the first channel.
+     */
+    private static final class Format {
+
+        final AudioEncoding encoding;
+        final int sampleRate;
+        final int bitDepth;
+        final int blockAlign;
+        long dataLength;
+
+        /** Scaled value of every 8-bit code, so companded samples cost one array read. */
+        private final double[] byteSamples;
+
+        Format(byte[] fmt) {
+            int tag = shortLE(fmt, 0);
+            if (tag == WAVE_FORMAT_EXTENSIBLE && fmt.length >= 26) {
+                tag = shortLE(fmt, 24); // the sub-format GUID starts with the actual tag
+            }
+            int channels = shortLE(fmt, 2);
+            this.sampleRate = intLE(fmt, 4);
+            this.bitDepth = shortLE(fmt, 14);
+            int declaredBlockAlign = shortLE(fmt, 12);
+            this.encoding = switch (tag) {
+                case 1 -> AudioEncoding.PCM;
+                case 6 -> AudioEncoding.A_LAW;
+                case 7 -> AudioEncoding.MU_LAW;
+                default -> throw new IllegalArgumentException("Unsupported WAV format tag " + tag);
+            };
+            if (channels < 1 || channels > MAX_CHANNELS || sampleRate < 1 || (bitDepth != 8 && bitDepth != 16)
+                    || (encoding != AudioEncoding.PCM && bitDepth != 8)) {
+                throw new IllegalArgumentException("Unsupported WAV sample format: " + channels
+                        + " channels, " + bitDepth + " bits, " + sampleRate + " Hz");
+            }
+            this.blockAlign = channels * bitDepth / 8;
+            if (declaredBlockAlign != blockAlign) {
+                throw new IllegalArgumentException("WAV block align " + declaredBlockAlign
+                        + " does not match " + channels + " channels of " + bitDepth + " bits");
+            }
+
+            if (bitDepth == 8) {
+                byteSamples = new double[256];
+                for (int code = 0; code < 256; code++) {
+                    byteSamples[code] = switch (encoding) {
+                        case PCM -> (code - 128) / 128.0;
+                        case MU_LAW -> G711.muLawToLinear((byte) code) / 32768.0;
+                        case A_LAW -> G711.aLawToLinear((byte) code) / 32768.0;
+                    };
+                }
+            } else {
+                byteSamples = null;
+            }
+        }
+
+        /**
+         * Returns the first channel's sample at the given byte offset, scaled to [-1, 1).
+         */
+        double sample(byte[] data, int offset) {
+            return byteSamples != null
+                    ? byteSamples[data[offset] & 0xFF]
+                    : (short) shortLE(data, offset) / 32768.0;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.capaciti.morse.service;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * MorseAudioRenderer turns Morse code into mono audio according to {@link AudioSettings}:
+ * WAV files in linear PCM or G.711 companding, or a compact list of tone events.
+ * <p>
+ * The dot and dash tones are rendered once per settings into immutable PCM templates,
+ * and gaps are copied from one chunk of silence as many times as they need. Rendering a
+ * message then only sizes the output from the symbol counts and bulk-copies templates
+ * into it, so no trigonometry runs per request and the cost of a message is proportional
+ * to its length in samples.
+ * <p>
+ * Element gaps last one dot, letter gaps three dots and word gaps seven dots, with letter
+ * and word gaps stretched under Farnsworth timing. Consecutive word breaks add up.
+ * The most recently used renderers are cached, and instances are safe to share between
+ * threads.
+ */
+public final class MorseAudioRenderer {
+
+    /** Size of the buffer used to stream PCM data. */
+    private static final int STREAM_CHUNK_SIZE = 16 * 1024;
+
+    /** Upper bound on cached renderers; the least recently used is evicted beyond it. */
+    private static final int MAX_CACHED_RENDERERS = 64;
+
+    /** Upper bound on the template bytes of all cached renderers. */
+    private static final long MAX_CACHED_TEMPLATE_BYTES = 32L * 1024 * 1024;
+
+    private static final BoundedLruCache<AudioSettings, MorseAudioRenderer> renderers = new BoundedLruCache<>(
+            MAX_CACHED_RENDERERS, MAX_CACHED_TEMPLATE_BYTES, (settings, renderer) -> renderer.templateBytes());
+
+    private final AudioSettings settings;
+    private final int bytesPerSample;
+    private final int headerLength;
+    private final int elementGap;
+    private final int letterGap;
+    private final int wordGap;
+
+    // Templates hold PCM in the output format, ready to copy into the data chunk
+    private final byte[] dot;
+    private final byte[] dash;
+    private final byte[] silence;
+
+    private MorseAudioRenderer(AudioSettings settings) {
+        this.settings = settings;
+        this.bytesPerSample = settings.bytesPerSample();
+        this.headerLength = headerLength(settings.encoding());
+        this.elementGap = settings.dotSamples();
+        this.letterGap = settings.letterGapSamples();
+        this.wordGap = settings.wordGapSamples();
+
+        this.dot = tone(settings, settings.dotSamples());
+        this.dash = tone(settings, 3 * settings.dotSamples());
+        this.silence = new byte[STREAM_CHUNK_SIZE];
+        if (bytesPerSample == 1) {
+            Arrays.fill(silence, encodeSample(settings, (short) 0));
+        }
+    }
+
+    /**
+     * Returns the renderer for the given settings, building its templates on first use.
+     *
+     * @param settings how the audio is rendered
+     * @return a renderer for the settings, shared when possible
+     */
+    public static MorseAudioRenderer of(AudioSettings settings) {
+        return renderers.get(settings, MorseAudioRenderer::new);
+    }
+
+    /**
+     * Returns the settings this renderer was built for.
+     *
+     * @return the audio settings
+     */
+    public AudioSettings settings() {
+        return settings;
+    }
+
+    private long templateBytes() {
+        return (long) dot.length + dash.length + silence.length;
+    }
+
+    /**
+     * Returns the size of the WAV header that precedes the samples.
+     *
+     * @return the header length in bytes
+     */
+    public int headerLength() {
+        return headerLength;
+    }
+
+    /**
+     * Returns the size of the WAV header for the given encoding, without building a renderer.
+     *
+     * @param encoding how the samples are stored
+     * @return the header length in bytes
+     */
+    public static int headerLength(AudioEncoding encoding) {
+        return encoding == AudioEncoding.PCM ? 44 : 58; // companded adds cbSize and fact
+    }
+
+    /**
+     * Returns the Java Sound format of the PCM data this renderer produces.
+     *
+     * @return the audio format
+     */
+    public AudioFormat audioFormat() {
+        float rate = settings.sampleRate();
+        return switch (settings.encoding()) {
+            case PCM -> new AudioFormat(rate, settings.bitDepth(), 1, settings.bitDepth() == 16, false);
+            case MU_LAW -> new AudioFormat(AudioFormat.Encoding.ULAW, rate, 8, 1, 1, rate, false);
+            case A_LAW -> new AudioFormat(AudioFormat.Encoding.ALAW, rate, 8, 1, 1, rate, false);
+        };
+    }
+
+    /**
+     * Renders Morse code as a complete WAV file. Dots, dashes, spaces and {@code /}
+     * are voiced; any other character is skipped.
+     *
+     * @param morse the Morse code to render
+     * @return the WAV file bytes
+     */
+    public byte[] renderWav(CharSequence morse) {
+        int dataLength = Math.toIntExact(pcmLength(morse));
+        byte[] wav = new byte[headerLength + dataLength];
+        writeWavHeader(wav, dataLength);
+        renderInMemory(morse, new ArraySink(wav, headerLength));
+        return wav;
+    }
+
+    /**
+     * Renders Morse code as raw PCM data without a header, for direct playback.
+     *
+     * @param morse the Morse code to render
+     * @return the PCM bytes in {@link #audioFormat()}
+     */
+    public byte[] renderPcm(CharSequence morse) {
+        byte[] pcm = new byte[Math.toIntExact(pcmLength(morse))];
+        renderInMemory(morse, new ArraySink(pcm, 0));
+        return pcm;
+    }
+
+    /**
+     * Streams Morse code as a WAV file. The header is written first, followed by the
+     * PCM data in fixed-size chunks, so memory use does not depend on message length.
+     *
+     * @param morse the Morse code to render
+     * @param out   the destination for the WAV bytes
+     * @throws IOException if writing fails
+     */
+    public void writeWav(CharSequence morse, OutputStream out) throws IOException {
+        int dataLength = Math.toIntExact(pcmLength(morse));
+        StreamSink sink = new StreamSink(out);
+        writeWavHeader(sink.chunk, dataLength);
+        sink.pos = headerLength;
+        render(morse, sink);
+        sink.flush();
+    }
+
+    /**
+     * Returns the total size of the WAV file {@link #renderWav(CharSequence)} produces
+     * for the given Morse code, computed from symbol counts without rendering.
+     *
+     * @param morse the Morse code to measure
+     * @return the size of the WAV file in bytes
+     */
+    public long wavLength(CharSequence morse) {
+        return headerLength + pcmLength(morse);
+    }
+
+    /**
+     * Describes Morse code as a compact JSON list of tone events instead of samples.
+     * Each event is a duration in samples at the configured rate: positive for a tone,
+     * negative for silence. Consecutive gaps are merged, and a client can synthesize
+     * the exact audio of {@link #renderWav(CharSequence)} from the frequency, ramp and
+     * events alone.
+     *
+     * @param morse the Morse code to describe
+     * @return the events as a JSON object
+     */
+    public String toneEvents(CharSequence morse) {
+        StringBuilder json = new StringBuilder(64 + 8 * morse.length())
+                .append("{\"frequency\":").append(settings.frequency())
+                .append(",\"sampleRate\":").append(settings.sampleRate())
+                .append(",\"rampMillis\":").append(settings.rampMillis())
+                .append(",\"events\":[");
+        int start = json.length();
+        renderInMemory(morse, new PcmSink() {
+            @Override
+            public void tone(byte[] template) {
+                event(template.length / bytesPerSample);
+            }
+
+            @Override
+            public void silence(long length) {
+                event(-(length / bytesPerSample));
+            }
+
+            private void event(long samples) {
+                if (json.length() > start) {
+                    json.append(',');
+                }
+                json.append(samples);
+            }
+        });
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Returns the number of PCM bytes rendered for the given Morse code, excluding the
+     * WAV header.
+     *
+     * @param morse the Morse code to measure
+     * @return the size of the PCM data in bytes
+     */
+    public long pcmLength(CharSequence morse) {
+        return new LengthCounter(settings).append(morse).pcmLength();
+    }
+
+    private void renderInMemory(CharSequence morse, PcmSink sink) {
+        try {
+            render(morse, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory sinks never throw
+        }
+    }
+
+    /**
+     * Walks the Morse code, voicing tones and accumulating the gap that precedes the
+     * next tone. Trailing gaps are not rendered.
+     */
+    private void render(CharSequence morse, PcmSink sink) throws IOException {
+        long pendingGap = 0;
+        for (int i = 0, n = morse.length(); i < n; i++) {
+            char c = morse.charAt(i);
+            if (c == '.' || c == '-') {
+                if (pendingGap > 0) {
+                    sink.silence(pendingGap * bytesPerSample);
+                }
+                sink.tone(c == '.' ? dot : dash);
+                pendingGap = elementGap;
+            } else if (c == ' ') {
+                pendingGap = Math.max(pendingGap, letterGap);
+            } else if (c == '/') {
+                pendingGap = pendingGap < wordGap ? wordGap : pendingGap + wordGap;
+            }
+        }
+    }
+
+    private void writeWavHeader(byte[] wav, int dataLength) {
+        int fmtLength = headerLength == 44 ? 16 : 18;
+        putAscii(wav, 0, "RIFF");
+        putIntLE(wav, 4, headerLength - 8 + dataLength);
+        putAscii(wav, 8, "WAVE");
+        putAscii(wav, 12, "fmt ");
+        putIntLE(wav, 16, fmtLength);
+        putShortLE(wav, 20, settings.encoding().wavFormatTag());
+        putShortLE(wav, 22, 1);                                         // mono
+        putIntLE(wav, 24, settings.sampleRate());
+        putIntLE(wav, 28, settings.sampleRate() * bytesPerSample);      // byte rate
+        putShortLE(wav, 32, bytesPerSample);                            // block align
+        putShortLE(wav, 34, settings.bitDepth());
+        int pos = 20 + fmtLength;
+        if (fmtLength == 18) {
+            putShortLE(wav, 36, 0);                                     // no extra format bytes
+            putAscii(wav, pos, "fact");
+            putIntLE(wav, pos + 4, 4);
+            putIntLE(wav, pos + 8, dataLength / bytesPerSample);        // sample count
+            pos += 12;
+        }
+        putAscii(wav, pos, "data");
+        putIntLE(wav, pos + 4, dataLength);
+    }
+
+    private static byte[] tone(AudioSettings settings, int samples) {
+        byte[] pcm = new byte[samples * settings.bytesPerSample()];
+        int ramp = Math.min(settings.sampleRate() * settings.rampMillis() / 1000, samples / 2);
+        for (int i = 0; i < samples; i++) {
+            double angle = 2.0 * Math.PI * settings.frequency() * i / settings.sampleRate();
+            double sample = Math.sin(angle) * envelope(i, samples, ramp);
+            if (settings.bitDepth() == 16) {
+                putShortLE(pcm, 2 * i, (short) (sample * 32767));
+            } else if (settings.encoding() == AudioEncoding.PCM) {
+                pcm[i] = (byte) ((byte) (sample * 127) ^ 0x80); // signed to unsigned 8-bit
+            } else {
+                pcm[i] = encodeSample(settings, (short) (sample * 32767));
+            }
+        }
+        return pcm;
+    }
+
+    /** Encodes a 16-bit linear sample as a single byte in an 8-bit encoding. */
+    private static byte encodeSample(AudioSettings settings, short sample) {
+        return switch (settings.encoding()) {
+            case PCM -> (byte) ((sample >> 8) ^ 0x80);
+            case MU_LAW -> G711.linearToMuLaw(sample);
+            case A_LAW -> G711.linearToALaw(sample);
+        };
+    }
+
+    /** Raised-cosine fade in and out over {@code ramp} samples at each end of a tone. */
+    private static double envelope(int i, int samples, int ramp) {
+        int edge = Math.min(i, samples - 1 - i);
+        return edge >= ramp ? 1.0 : 0.5 - 0.5 * Math.cos(Math.PI * edge / ramp);
+    }
+
+    private static void putAscii(byte[] b, int off, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            b[off + i] = (byte) s.charAt(i);
+        }
+    }
+
+    private static void putShortLE(byte[] b, int off, int v) {
+        b[off] = (byte) v;
+        b[off + 1] = (byte) (v >>> 8);
+    }
+
+    private static void putIntLE(byte[] b, int off, int v) {
+        putShortLE(b, off, v);
+        putShortLE(b, off + 2, v >>> 16);
+    }
+
+    /** Destination for rendered PCM; silence lengths are in bytes. */
+    private interface PcmSink {
+        void tone(byte[] template) throws IOException;
+
+        void silence(long length) throws IOException;
+    }
+
+    /**
+     * Measures the audio rendered for the Morse code appended to it, from the settings
+     * alone: no templates are built and no renderer is looked up, so the code can be
+     * measured as an encoder writes it, without being held or rendered. Gaps follow the
+     * same rules as rendering, and trailing gaps are not counted.
+     */
+    public static final class LengthCounter implements Appendable {
+
+        private final AudioSettings settings;
+        private final long dotSamples;
+        private final long letterGap;
+        private final long wordGap;
+        private long samples;
+        private long pendingGap;
+
+        public LengthCounter(AudioSettings settings) {
+            this.settings = settings;
+            this.dotSamples = settings.dotSamples();
+            this.letterGap = settings.letterGapSamples();
+            this.wordGap = settings.wordGapSamples();
+        }
+
+        @Override
+        public LengthCounter append(CharSequence morse) {
+            return append(morse, 0, morse.length());
+        }
+
+        @Override
+        public LengthCounter append(CharSequence morse, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(morse.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public LengthCounter append(char c) {
+            if (c == '.' || c == '-') {
+                samples += pendingGap + (c == '.' ? dotSamples : 3 * dotSamples);
+                pendingGap = dotSamples;
+            } else if (c == ' ') {
+                pendingGap = Math.max(pendingGap, letterGap);
+            } else if (c == '/') {
+                pendingGap = pendingGap < wordGap ? wordGap : pendingGap + wordGap;
+            }
+            return this;
+        }
+
+        /** @return the size of the PCM data appended so far, in bytes */
+        public long pcmLength() {
+            return samples * settings.bytesPerSample();
+        }
+
+        /** @return the size of the WAV file for the code appended so far, in bytes */
+        public long wavLength() {
+            return headerLength(settings.encoding()) + pcmLength();
+        }
+    }
+
+    private final class ArraySink implements PcmSink {
+        private final byte[] target;
+        private int pos;
+
+        ArraySink(byte[] target, int pos) {
+            this.target = target;
+            this.pos = pos;
+        }
+
+        @Override
+        public void tone(byte[] template) {
+            System.arraycopy(template, 0, target, pos, template.length);
+            pos += template.length;
+        }
+
+        @Override
+        public void silence(long length) {
+            for (int remaining = (int) length; remaining > 0; ) {
+                int count = Math.min(remaining, silence.length);
+                System.arraycopy(silence, 0, target, pos, count);
+                pos += count;
+                remaining -= count;
+            }
+        }
+    }
+
+    private final class StreamSink implements PcmSink {
+        private final OutputStream out;
+        private final byte[] chunk = new byte[STREAM_CHUNK_SIZE];
+        private int pos;
+
+        StreamSink(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void tone(byte[] template) throws IOException {
+            copy(template, template.length);
+        }
+
+        @Override
+        public void silence(long length) throws IOException {
+            for (long remaining = length; remaining > 0; ) {
+                int count = (int) Math.min(remaining, silence.length);
+                copy(silence, count);
+                remaining -= count;
+            }
+        }
+
+        private void copy(byte[] source, int length) throws IOException {
+            for (int copied = 0; copied < length; ) {
+                int count = Math.min(length - copied, chunk.length - pos);
+                System.arraycopy(source, copied, chunk, pos, count);
+                copied += count;
+                pos += count;
+                if (pos == chunk.length) {
+                    out.write(chunk, 0, pos);
+                    pos = 0;
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            out.write(chunk, 0, pos);
+            pos = 0;
+            out.flush();
+        }
+    }
+}
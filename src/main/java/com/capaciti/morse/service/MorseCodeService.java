@@ -1,5 +1,16 @@
 package com.capaciti.morse.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.capaciti.morse.model.MorseRequest;
+import com.capaciti.morse.model.MorseResponse;
+
 /**
  * Interface defining the contract for Morse code operations.
  * Provides methods to encode plain text into Morse code, decode Morse code,
@@ -13,7 +24,18 @@ public interface MorseCodeService {
      * @param input The plain text to be encoded.
      * @return A string representing the encoded Morse code.
      */
-    String encode(String input);
+    default String encode(String input) {
+        return encode(input, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Encodes the given input string into Morse code using the given alphabet.
+     *
+     * @param input    The plain text to be encoded.
+     * @param alphabet The alphabet to encode with.
+     * @return A string representing the encoded Morse code.
+     */
+    String encode(String input, MorseAlphabet alphabet);
 
     /**
      * Decodes the given Morse code string into plain text.
@@ -21,7 +43,112 @@ public interface MorseCodeService {
      * @param morseCode The Morse code string to be decoded.
      * @return The decoded plain text.
      */
-    String decode(String morseCode);
+    default String decode(String morseCode) {
+        return decode(morseCode, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Decodes the given Morse code string into plain text using the given alphabet.
+     *
+     * @param morseCode The Morse code string to be decoded.
+     * @param alphabet  The alphabet to decode with.
+     * @return The decoded plain text.
+     */
+    String decode(String morseCode, MorseAlphabet alphabet);
+
+    /**
+     * Encodes a stream of plain text into Morse code, writing output incrementally.
+     *
+     * @param in  The plain text to be encoded.
+     * @param out The destination for the encoded Morse code.
+     * @throws IOException if reading or writing fails.
+     */
+    default void encode(Reader in, Writer out) throws IOException {
+        encode(in, out, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Encodes a stream of plain text into Morse code using the given alphabet.
+     *
+     * @param in       The plain text to be encoded.
+     * @param out      The destination for the encoded Morse code.
+     * @param alphabet The alphabet to encode with.
+     * @throws IOException if reading or writing fails.
+     */
+    void encode(Reader in, Writer out, MorseAlphabet alphabet) throws IOException;
+
+    /**
+     * Decodes a stream of Morse code into plain text, writing output incrementally.
+     *
+     * @param in  The Morse code to be decoded.
+     * @param out The destination for the decoded plain text.
+     * @throws IOException if reading or writing fails.
+     */
+    default void decode(Reader in, Writer out) throws IOException {
+        decode(in, out, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Decodes a stream of Morse code into plain text using the given alphabet.
+     *
+     * @param in       The Morse code to be decoded.
+     * @param out      The destination for the decoded plain text.
+     * @param alphabet The alphabet to decode with.
+     * @throws IOException if reading or writing fails.
+     */
+    void decode(Reader in, Writer out, MorseAlphabet alphabet) throws IOException;
+
+    /**
+     * Encodes UTF-8 text bytes into ASCII Morse code without converting either to a
+     * {@code String}.
+     *
+     * @param input    The plain text to be encoded, as UTF-8.
+     * @param alphabet The alphabet to encode with.
+     * @return The encoded Morse code, as ASCII.
+     */
+    default byte[] encode(byte[] input, MorseAlphabet alphabet) {
+        return toArray(encode(ByteBuffer.wrap(input), alphabet));
+    }
+
+    /**
+     * Encodes the remaining bytes of a UTF-8 buffer into ASCII Morse code, leaving the
+     * input's position unchanged.
+     *
+     * @param input    The plain text to be encoded, as UTF-8.
+     * @param alphabet The alphabet to encode with.
+     * @return A buffer holding the encoded Morse code, as ASCII.
+     */
+    ByteBuffer encode(ByteBuffer input, MorseAlphabet alphabet);
+
+    /**
+     * Decodes ASCII Morse code bytes into UTF-8 text without converting either to a
+     * {@code String}.
+     *
+     * @param morseCode The Morse code to be decoded, as ASCII.
+     * @param alphabet  The alphabet to decode with.
+     * @return The decoded plain text, as UTF-8.
+     */
+    default byte[] decode(byte[] morseCode, MorseAlphabet alphabet) {
+        return toArray(decode(ByteBuffer.wrap(morseCode), alphabet));
+    }
+
+    /**
+     * Decodes the remaining bytes of an ASCII Morse code buffer into UTF-8 text, leaving
+     * the input's position unchanged.
+     *
+     * @param morseCode The Morse code to be decoded, as ASCII.
+     * @param alphabet  The alphabet to decode with.
+     * @return A buffer holding the decoded plain text, as UTF-8.
+     */
+    ByteBuffer decode(ByteBuffer morseCode, MorseAlphabet alphabet);
+
+    /**
+     * Translates a batch of messages, each in its own direction and alphabet.
+     *
+     * @param requests The messages to translate.
+     * @return One response per request, in the same order.
+     */
+    List<MorseResponse> translateBatch(List<MorseRequest> requests);
 
     /**
      * Generates Morse code audio as a WAV byte array.
@@ -30,4 +157,88 @@ public interface MorseCodeService {
      * @return byte[] representing the WAV file
      */
     byte[] generateMorseAudio(String text);
+
+    /**
+     * Generates Morse code audio as a WAV byte array with the given settings.
+     *
+     * @param text     plain text input
+     * @param settings speed, tone and sample format of the audio
+     * @return byte[] representing the WAV file
+     */
+    byte[] generateMorseAudio(String text, AudioSettings settings);
+
+    /**
+     * Generates Morse code audio as a read-only WAV buffer. Unlike
+     * {@link #generateMorseAudio(String, AudioSettings)}, the buffer may be shared
+     * between callers without copying.
+     *
+     * @param text     plain text input
+     * @param settings speed, tone and sample format of the audio
+     * @return a read-only buffer holding the WAV file
+     */
+    ByteBuffer generateMorseAudioBuffer(String text, AudioSettings settings);
+
+    /**
+     * Returns the size of the WAV file {@link #generateMorseAudio(String, AudioSettings)}
+     * would produce, without rendering it.
+     *
+     * @param text     plain text input
+     * @param settings speed, tone and sample format of the audio
+     * @return the WAV file size in bytes
+     */
+    long morseAudioLength(String text, AudioSettings settings);
+
+    /**
+     * Streams Morse code audio as a WAV file in fixed-size chunks.
+     *
+     * @param text     plain text input
+     * @param settings speed, tone and sample format of the audio
+     * @param out      the destination for the WAV bytes
+     * @throws IOException if writing fails
+     */
+    void writeMorseAudio(String text, AudioSettings settings, OutputStream out) throws IOException;
+
+    /**
+     * Describes Morse code audio as a compact JSON list of tone and silence durations.
+     *
+     * @param text     plain text input
+     * @param settings speed and tone of the audio
+     * @return the tone events as JSON
+     */
+    String generateToneEvents(String text, AudioSettings settings);
+
+    /**
+     * Decodes Morse code audio from a WAV stream, writing text incrementally.
+     *
+     * @param wav       the WAV stream to decode
+     * @param frequency the tone frequency to listen for, in Hz
+     * @param out       the destination for the decoded plain text
+     * @throws IOException if reading or writing fails
+     */
+    void decodeMorseAudio(InputStream wav, int frequency, Writer out) throws IOException;
+
+    /**
+     * Decodes hand-keyed Morse code from key-down and key-up durations in milliseconds,
+     * adapting to the operator's speed and writing text incrementally.
+     *
+     * @param events   the durations, positive for tones and negative for silences
+     * @param wpm      the expected keying speed, used until the operator's speed is learned
+     * @param out      the destination for the decoded plain text
+     * @param alphabet the alphabet to decode with
+     * @throws IOException if reading or writing fails
+     */
+    void decodeTimings(Reader events, int wpm, Writer out, MorseAlphabet alphabet) throws IOException;
+
+    /**
+     * Returns the remaining bytes of a buffer, without copying when it wraps exactly one array.
+     */
+    private static byte[] toArray(ByteBuffer buffer) {
+        if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+            return buffer.array();
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
 }
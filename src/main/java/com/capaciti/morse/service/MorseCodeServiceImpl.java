@@ -2,6 +2,18 @@ package com.capaciti.morse.service;
 
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.capaciti.morse.model.MorseRequest;
+import com.capaciti.morse.model.MorseResponse;
+
 /**
  * Implementation of the {@link MorseCodeService} interface.
  * Delegates encoding, decoding, and audio generation to {@link MorseService}.
@@ -9,6 +21,9 @@ import org.springframework.stereotype.Service;
 @Service
 public class MorseCodeServiceImpl implements MorseCodeService {
 
+    /** Batches smaller than this are translated on the calling thread. */
+    private static final int PARALLEL_BATCH_THRESHOLD = 64;
+
     private final MorseService morseService;
 
     public MorseCodeServiceImpl(MorseService morseService) {
@@ -16,17 +31,91 @@ public class MorseCodeServiceImpl implements MorseCodeService {
     }
 
     @Override
-    public String encode(String input) {
-        return morseService.encode(input);
+    public String encode(String input, MorseAlphabet alphabet) {
+        return morseService.encodeParallel(input, alphabet);
+    }
+
+    @Override
+    public String decode(String morseCode, MorseAlphabet alphabet) {
+        return morseService.decodeParallel(morseCode, alphabet);
     }
 
     @Override
-    public String decode(String morseCode) {
-        return morseService.decode(morseCode);
+    public ByteBuffer encode(ByteBuffer input, MorseAlphabet alphabet) {
+        return morseService.encode(input, alphabet);
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer morseCode, MorseAlphabet alphabet) {
+        return morseService.decode(morseCode, alphabet);
+    }
+
+    @Override
+    public void encode(Reader in, Writer out, MorseAlphabet alphabet) throws IOException {
+        morseService.encode(in, out, alphabet);
+    }
+
+    @Override
+    public void decode(Reader in, Writer out, MorseAlphabet alphabet) throws IOException {
+        morseService.decode(in, out, alphabet);
+    }
+
+    @Override
+    public List<MorseResponse> translateBatch(List<MorseRequest> requests) {
+        Stream<MorseRequest> stream = requests.size() < PARALLEL_BATCH_THRESHOLD
+                ? requests.stream()
+                : requests.parallelStream();
+        return stream.map(this::translate).toList();
+    }
+
+    private MorseResponse translate(MorseRequest request) {
+        String message = request.getMessage() == null ? "" : request.getMessage();
+        MorseAlphabet alphabet = request.getAlphabet() == null
+                ? MorseAlphabet.defaultAlphabet()
+                : MorseAlphabet.forName(request.getAlphabet());
+        String result = request.getDirection() == MorseRequest.Direction.DECODE
+                ? morseService.decode(message, alphabet)
+                : morseService.encode(message, alphabet);
+        return new MorseResponse(result);
     }
 
     @Override
     public byte[] generateMorseAudio(String text) {
         return morseService.generateMorseAudio(text);
     }
+
+    @Override
+    public byte[] generateMorseAudio(String text, AudioSettings settings) {
+        return morseService.generateMorseAudio(text, settings);
+    }
+
+    @Override
+    public ByteBuffer generateMorseAudioBuffer(String text, AudioSettings settings) {
+        return ByteBuffer.wrap(morseService.generateMorseAudio(text, settings)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public long morseAudioLength(String text, AudioSettings settings) {
+        return morseService.morseAudioLength(text, settings);
+    }
+
+    @Override
+    public void writeMorseAudio(String text, AudioSettings settings, OutputStream out) throws IOException {
+        morseService.writeMorseAudio(text, settings, out);
+    }
+
+    @Override
+    public String generateToneEvents(String text, AudioSettings settings) {
+        return morseService.generateToneEvents(text, settings);
+    }
+
+    @Override
+    public void decodeMorseAudio(InputStream wav, int frequency, Writer out) throws IOException {
+        morseService.decodeMorseAudio(wav, frequency, out);
+    }
+
+    @Override
+    public void decodeTimings(Reader events, int wpm, Writer out, MorseAlphabet alphabet) throws IOException {
+        morseService.decodeTimings(events, wpm, out, alphabet);
+    }
 }
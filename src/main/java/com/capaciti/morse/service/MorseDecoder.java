@@ -0,0 +1,162 @@
+package com.capaciti.morse.service;
+
+import java.io.IOException;
+
+/**
+ * MorseDecoder is a single-pass state machine that turns Morse code into plain text.
+ * <p>
+ * Each symbol is walked down an implicit binary tree: starting from the root at index 1,
+ * a dot moves to {@code 2n} and a dash to {@code 2n + 1}. The final index is looked up in a
+ * packed {@code char[]}, so decoding never builds substrings or boxes characters.
+ * <p>
+ * Symbols are separated by any run of whitespace, and {@code /} marks a word break whether
+ * or not it is surrounded by spaces. Unknown symbols decode to {@code ?}, and prosigns to
+ * their bracketed name, such as {@code <SK>}. Leading and
+ * trailing word breaks are dropped, matching the trimmed output of {@link MorseService#decode(String)}.
+ * <p>
+ * Input may be fed in arbitrary chunks; state carries over so a symbol split across two
+ * chunks decodes correctly. Instances are not thread-safe and should be used for one
+ * stream at a time.
+ */
+public class MorseDecoder {
+
+    private static final int ROOT = 1;
+
+    private final char[] table;
+    private final String[] prosigns;
+    private final int maxNode;
+
+    private int node = ROOT;
+    private boolean invalid;
+    private int pendingSpaces;
+    private boolean emitted;
+    private long unknownCount;
+
+    /**
+     * Creates a decoder for the international alphabet.
+     */
+    public MorseDecoder() {
+        this(MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Creates a decoder for the given alphabet.
+     *
+     * @param alphabet the alphabet whose symbols are recognised
+     */
+    public MorseDecoder(MorseAlphabet alphabet) {
+        this.table = alphabet.decodeTable();
+        this.prosigns = alphabet.prosigns();
+        this.maxNode = table.length / 2;
+    }
+
+    /**
+     * Returns the tree index of a Morse symbol, as used to build decoding tables.
+     *
+     * @param symbol a sequence of dots and dashes
+     * @return the packed tree index of the symbol
+     */
+    static int treeIndex(CharSequence symbol) {
+        int index = ROOT;
+        for (int i = 0; i < symbol.length(); i++) {
+            index = 2 * index + (symbol.charAt(i) == '-' ? 1 : 0);
+        }
+        return index;
+    }
+
+    /**
+     * Decodes a whole Morse string, writing the text to the given destination.
+     *
+     * @param morseCode the Morse code to decode
+     * @param out       the destination for the decoded text
+     * @throws IOException if the destination fails to accept output
+     */
+    public void decode(CharSequence morseCode, Appendable out) throws IOException {
+        feed(morseCode, 0, morseCode.length(), out);
+        finish(out);
+    }
+
+    /**
+     * Feeds a chunk of Morse code into the decoder. Characters are written as soon as
+     * their symbol is terminated; a symbol still open at the end of the chunk is kept
+     * until the next call or {@link #finish(Appendable)}.
+     *
+     * @param morseCode the buffer holding the chunk
+     * @param start     index of the first character to decode
+     * @param end       index after the last character to decode
+     * @param out       the destination for the decoded text
+     * @throws IOException if the destination fails to accept output
+     */
+    public void feed(CharSequence morseCode, int start, int end, Appendable out) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = morseCode.charAt(i);
+            if (c == '.') {
+                extend(0);
+            } else if (c == '-') {
+                extend(1);
+            } else if (c == '/') {
+                endSymbol(out);
+                pendingSpaces++;
+            } else if (c <= ' ') {
+                endSymbol(out);
+            } else {
+                invalid = true;
+            }
+        }
+    }
+
+    /**
+     * Flushes any open symbol and resets the decoder so it can be reused.
+     *
+     * @param out the destination for the decoded text
+     * @throws IOException if the destination fails to accept output
+     */
+    public void finish(Appendable out) throws IOException {
+        endSymbol(out);
+        pendingSpaces = 0;
+        emitted = false;
+    }
+
+    /**
+     * Returns how many symbols this decoder has written as {@code ?}. The count is kept
+     * across {@link #finish(Appendable)} calls.
+     *
+     * @return the number of unknown symbols decoded so far
+     */
+    public long unknownCount() {
+        return unknownCount;
+    }
+
+    private void extend(int bit) {
+        if (node < maxNode) {
+            node = 2 * node + bit;
+        } else {
+            invalid = true; // longer than any symbol in the table
+        }
+    }
+
+    private void endSymbol(Appendable out) throws IOException {
+        if (node == ROOT && !invalid) {
+            return;
+        }
+        char ch = invalid ? 0 : table[node];
+        node = ROOT;
+        invalid = false;
+
+        if (emitted) {
+            for (; pendingSpaces > 0; pendingSpaces--) {
+                out.append(' ');
+            }
+        }
+        pendingSpaces = 0;
+        if (ch == 0) {
+            unknownCount++;
+            out.append('?');
+        } else if (ch >= MorseAlphabet.PROSIGN_BASE) {
+            out.append(prosigns[ch - MorseAlphabet.PROSIGN_BASE]);
+        } else {
+            out.append(ch);
+        }
+        emitted = true;
+    }
+}
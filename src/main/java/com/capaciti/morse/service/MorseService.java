@@ -2,149 +2,851 @@ package com.capaciti.morse.service;
 
 import org.springframework.stereotype.Service;
 
-import javax.sound.sampled.*;
 import java.io.*;
-import java.util.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
 
 /**
  * MorseService class provides the functionality for encoding and decoding Morse code.
- * It also includes audio generation for Morse code.
+ * It also includes audio generation for Morse code. Text is translated with the
+ * international alphabet unless another {@link MorseAlphabet} is given.
  */
 @Service
 public class MorseService {
 
-    private static final Map<Character, String> morseMap = new HashMap<>();
-    private static final Map<String, Character> reverseMap = new HashMap<>();
-
-    static {
-        // Letters
-        morseMap.put('A', ".-");
-        morseMap.put('B', "-...");
-        morseMap.put('C', "-.-.");
-        morseMap.put('D', "-..");
-        morseMap.put('E', ".");
-        morseMap.put('F', "..-.");
-        morseMap.put('G', "--.");
-        morseMap.put('H', "....");
-        morseMap.put('I', "..");
-        morseMap.put('J', ".---");
-        morseMap.put('K', "-.-");
-        morseMap.put('L', ".-..");
-        morseMap.put('M', "--");
-        morseMap.put('N', "-.");
-        morseMap.put('O', "---");
-        morseMap.put('P', ".--.");
-        morseMap.put('Q', "--.-");
-        morseMap.put('R', ".-.");
-        morseMap.put('S', "...");
-        morseMap.put('T', "-");
-        morseMap.put('U', "..-");
-        morseMap.put('V', "...-");
-        morseMap.put('W', ".--");
-        morseMap.put('X', "-..-");
-        morseMap.put('Y', "-.--");
-        morseMap.put('Z', "--..");
-
-        // Numbers
-        morseMap.put('0', "-----");
-        morseMap.put('1', ".----");
-        morseMap.put('2', "..---");
-        morseMap.put('3', "...--");
-        morseMap.put('4', "....-");
-        morseMap.put('5', ".....");
-        morseMap.put('6', "-....");
-        morseMap.put('7', "--...");
-        morseMap.put('8', "---..");
-        morseMap.put('9', "----.");
-
-        // Space as slash
-        morseMap.put(' ', "/");
-
-        // Reverse map
-        for (Map.Entry<Character, String> entry : morseMap.entrySet()) {
-            reverseMap.put(entry.getValue(), entry.getKey());
+    /** Number of characters read per chunk by the streaming encode and decode methods. */
+    private static final int STREAM_CHUNK_SIZE = 8192;
+
+    /**
+     * Inputs shorter than this are translated sequentially by the parallel methods. Measured
+     * with {@code MorseServiceBenchmark}: below it, splitting and forking cost more than the
+     * extra cores save.
+     */
+    static final int PARALLEL_THRESHOLD = 128 * 1024;
+
+    /** Target length of the segments a parallel translation is split into. */
+    private static final int PARALLEL_SEGMENT_SIZE = 32 * 1024;
+
+    /** Unknown characters seen while encoding and decoding; striped so hot paths never contend. */
+    private final LongAdder unknownEncoded = new LongAdder();
+    private final LongAdder unknownDecoded = new LongAdder();
+
+    /**
+     * Encodes plain text into Morse code, with symbols separated by single spaces
+     * and word breaks rendered as {@code /}.
+     *
+     * @param input the plain text to encode
+     * @return the Morse code representation of the input
+     */
+    public String encode(String input) {
+        return encode(input, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Encodes plain text into Morse code using the given alphabet.
+     *
+     * @param input    the plain text to encode
+     * @param alphabet the alphabet to encode with
+     * @return the Morse code representation of the input
+     */
+    public String encode(String input, MorseAlphabet alphabet) {
+        StringBuilder result = new StringBuilder(encodedLength(input, alphabet));
+        try {
+            encode(input, result, alphabet);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
         }
+        return result.toString();
     }
 
-    public String encode(String input) {
-        StringBuilder result = new StringBuilder();
-        for (char ch : input.toUpperCase().toCharArray()) {
-            result.append(morseMap.getOrDefault(ch, "?")).append(" ");
+    /**
+     * Encodes plain text into Morse code, writing the symbols directly to the
+     * given destination without building intermediate strings.
+     *
+     * @param input the plain text to encode
+     * @param out   the destination for the encoded symbols
+     * @throws IOException if the destination fails to accept output
+     */
+    public void encode(CharSequence input, Appendable out) throws IOException {
+        encode(input, out, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Encodes plain text into Morse code using the given alphabet, writing the symbols
+     * directly to the given destination. Prosigns are written in angle brackets, such
+     * as {@code <SK>}, and encoded as a single symbol.
+     *
+     * @param input    the plain text to encode
+     * @param out      the destination for the encoded symbols
+     * @param alphabet the alphabet to encode with
+     * @throws IOException if the destination fails to accept output
+     */
+    public void encode(CharSequence input, Appendable out, MorseAlphabet alphabet) throws IOException {
+        int unknown = encodeUncounted(input, out, alphabet);
+        if (unknown > 0) {
+            unknownEncoded.add(unknown);
+        }
+    }
+
+    /**
+     * Encodes like {@link #encode(CharSequence, Appendable, MorseAlphabet)} without adding
+     * to the unknown-character count, for passes that only measure the output.
+     *
+     * @return the number of characters encoded as {@code ?}
+     */
+    private int encodeUncounted(CharSequence input, Appendable out, MorseAlphabet alphabet) throws IOException {
+        int unknown = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            if (i > 0) {
+                out.append(' ');
+            }
+            char c = input.charAt(i);
+            int prosign = c == '<' ? alphabet.prosignAt(input, i) : -1;
+            String symbol;
+            if (prosign >= 0) {
+                symbol = alphabet.prosignCode(prosign);
+                i += alphabet.prosignLength(prosign) - 1;
+            } else {
+                symbol = alphabet.symbolFor(c);
+                if (symbol == MorseAlphabet.UNKNOWN_SYMBOL) {
+                    unknown++;
+                }
+            }
+            out.append(symbol);
+        }
+        return unknown;
+    }
+
+    /**
+     * Encodes plain text like {@link #encode(String, MorseAlphabet)}, splitting inputs of
+     * {@link #PARALLEL_THRESHOLD} characters or more into segments that are encoded on the
+     * common fork/join pool. Segments never split a prosign. Each segment's exact encoded
+     * length is measured first, so every segment writes straight into its place in a single
+     * result array.
+     *
+     * @param input    the plain text to encode
+     * @param alphabet the alphabet to encode with
+     * @return the Morse code representation of the input
+     */
+    public String encodeParallel(String input, MorseAlphabet alphabet) {
+        if (input.length() < PARALLEL_THRESHOLD) {
+            return encode(input, alphabet);
+        }
+        int[] bounds = new int[input.length() / PARALLEL_SEGMENT_SIZE + 2];
+        int count = 0;
+        for (int end = PARALLEL_SEGMENT_SIZE; end < input.length(); end += PARALLEL_SEGMENT_SIZE) {
+            int bound = end - alphabet.openProsignLength(input, end);
+            if (bound > bounds[count]) {
+                bounds[++count] = bound;
+            }
+        }
+        bounds[++count] = input.length();
+        int segments = count;
+
+        // Every segment after the first starts with the separator before its first symbol
+        int[] offsets = new int[segments + 1];
+        forEachSegment(segments, k -> offsets[k + 1] = (k > 0 ? 1 : 0)
+                + encodedLength(CharBuffer.wrap(input, bounds[k], bounds[k + 1]), alphabet));
+        for (int k = 0; k < segments; k++) {
+            offsets[k + 1] = Math.addExact(offsets[k + 1], offsets[k]);
+        }
+
+        char[] result = new char[offsets[segments]];
+        forEachSegment(segments, k -> {
+            CharArrayAppendable out = new CharArrayAppendable(result, offsets[k]);
+            if (k > 0) {
+                out.append(' ');
+            }
+            try {
+                encode(CharBuffer.wrap(input, bounds[k], bounds[k + 1]), out, alphabet);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // the array never throws
+            }
+        });
+        return new String(result);
+    }
+
+    /**
+     * Returns the exact number of characters {@link #encode(CharSequence, Appendable)}
+     * produces for the given input, so callers can size their buffers up front.
+     *
+     * @param input the plain text to measure
+     * @return the length of the encoded output
+     */
+    public int encodedLength(CharSequence input) {
+        return encodedLength(input, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Returns the exact number of characters encoding the given input with the given
+     * alphabet produces.
+     *
+     * @param input    the plain text to measure
+     * @param alphabet the alphabet to encode with
+     * @return the length of the encoded output
+     */
+    public int encodedLength(CharSequence input, MorseAlphabet alphabet) {
+        long length = 0;
+        for (int i = 0, n = input.length(); i < n; i++) {
+            if (i > 0) {
+                length++; // separator
+            }
+            char c = input.charAt(i);
+            int prosign = c == '<' ? alphabet.prosignAt(input, i) : -1;
+            if (prosign >= 0) {
+                length += alphabet.prosignCode(prosign).length();
+                i += alphabet.prosignLength(prosign) - 1;
+            } else {
+                length += alphabet.symbolFor(c).length();
+            }
+        }
+        return Math.toIntExact(length);
+    }
+
+    /**
+     * Encodes UTF-8 text straight from bytes to ASCII Morse code, producing the same output
+     * as {@link #encode(String, MorseAlphabet)} without building any strings. ASCII bytes,
+     * including lower case, are looked up directly in a byte table; other characters are
+     * decoded from UTF-8 one at a time, and each byte of a malformed sequence encodes as
+     * {@code ?}. The remaining bytes of the input are read without changing its position.
+     *
+     * @param input    the UTF-8 text to encode
+     * @param alphabet the alphabet to encode with
+     * @return a buffer over an array of exactly the encoded length
+     */
+    public ByteBuffer encode(ByteBuffer input, MorseAlphabet alphabet) {
+        ByteText text = new ByteText(input);
+        byte[] result = new byte[encodeAscii(text, null, alphabet)];
+        encodeAscii(text, result, alphabet);
+        return ByteBuffer.wrap(result);
+    }
+
+    /**
+     * Encodes bytes into {@code out}, or only measures the output when {@code out} is null.
+     *
+     * @return the length of the encoded output
+     */
+    private int encodeAscii(ByteText text, byte[] out, MorseAlphabet alphabet) {
+        int length = 0;
+        int unknown = 0;
+        char[] chars = new char[2];
+        for (int i = 0, n = text.length(); i < n; ) {
+            int b = text.byteAt(i);
+            int count = 1;
+            byte[] symbol;
+            if (b >= 0) {
+                int prosign = b == '<' ? alphabet.prosignAt(text, i) : -1;
+                symbol = prosign >= 0 ? alphabet.asciiProsignCode(prosign) : alphabet.asciiSymbolFor((char) b);
+                i += prosign >= 0 ? alphabet.prosignLength(prosign) : 1;
+            } else {
+                int sequence = utf8Length(b);
+                int codePoint = sequence > 1 ? utf8CodePoint(text, i, sequence) : -1;
+                if (codePoint >= 0) {
+                    count = Character.toChars(codePoint, chars, 0); // two symbols for a surrogate pair
+                    symbol = alphabet.asciiSymbolFor(chars[0]);
+                    i += sequence;
+                } else {
+                    symbol = MorseAlphabet.UNKNOWN_SYMBOL_BYTES;
+                    i++;
+                }
+            }
+            for (int c = 0; c < count; c++) {
+                if (c > 0) {
+                    symbol = alphabet.asciiSymbolFor(chars[c]);
+                }
+                if (length > 0) {
+                    if (out != null) {
+                        out[length] = ' ';
+                    }
+                    length++;
+                }
+                if (out != null) {
+                    System.arraycopy(symbol, 0, out, length, symbol.length);
+                }
+                if (symbol == MorseAlphabet.UNKNOWN_SYMBOL_BYTES) {
+                    unknown++;
+                }
+                length = Math.addExact(length, symbol.length);
+            }
+        }
+        if (out != null && unknown > 0) {
+            unknownEncoded.add(unknown);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the length of the UTF-8 sequence a non-ASCII lead byte starts, or 1 if it
+     * cannot start one.
+     */
+    private static int utf8Length(int lead) {
+        lead &= 0xFF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            return 2;
+        }
+        if (lead >= 0xE0 && lead <= 0xEF) {
+            return 3;
+        }
+        return lead >= 0xF0 && lead <= 0xF4 ? 4 : 1;
+    }
+
+    /**
+     * Decodes a UTF-8 sequence, returning {@code -1} if it is truncated, overlong or
+     * encodes a surrogate.
+     */
+    private static int utf8CodePoint(ByteText text, int start, int length) {
+        if (start + length > text.length()) {
+            return -1;
+        }
+        int codePoint = text.byteAt(start) & (0x7F >> length);
+        for (int i = start + 1; i < start + length; i++) {
+            int b = text.byteAt(i);
+            if ((b & 0xC0) != 0x80) {
+                return -1;
+            }
+            codePoint = codePoint << 6 | (b & 0x3F);
+        }
+        boolean valid = switch (length) {
+            case 3 -> codePoint >= 0x800 && !Character.isSurrogate((char) codePoint);
+            case 4 -> codePoint >= 0x10000 && codePoint <= Character.MAX_CODE_POINT;
+            default -> true;
+        };
+        return valid ? codePoint : -1;
+    }
+
+    /**
+     * Encodes a character stream into Morse code, reading and writing in fixed-size
+     * chunks so memory use does not depend on the length of the input.
+     *
+     * @param in  the plain text to encode
+     * @param out the destination for the encoded symbols
+     * @throws IOException if reading or writing fails
+     */
+    public void encode(Reader in, Writer out) throws IOException {
+        encode(in, out, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Encodes a character stream into Morse code using the given alphabet. A prosign
+     * split across two chunks is held back until it is complete.
+     *
+     * @param in       the plain text to encode
+     * @param out      the destination for the encoded symbols
+     * @param alphabet the alphabet to encode with
+     * @throws IOException if reading or writing fails
+     */
+    public void encode(Reader in, Writer out, MorseAlphabet alphabet) throws IOException {
+        char[] buffer = new char[STREAM_CHUNK_SIZE];
+        CharBuffer chunk = CharBuffer.wrap(buffer);
+        boolean first = true;
+        int carried = 0;
+        int n;
+        while ((n = in.read(buffer, carried, buffer.length - carried)) != -1) {
+            int length = carried + n;
+            int end = length - alphabet.openProsignLength(chunk.limit(length), length);
+            if (end > 0) {
+                if (!first) {
+                    out.write(' ');
+                }
+                encode(chunk.limit(end), out, alphabet);
+                first = false;
+            }
+            carried = length - end;
+            System.arraycopy(buffer, end, buffer, 0, carried);
+        }
+        if (carried > 0) {
+            if (!first) {
+                out.write(' ');
+            }
+            encode(chunk.limit(carried), out, alphabet);
         }
-        return result.toString().trim();
     }
 
+    /**
+     * Decodes Morse code into plain text. Symbols may be separated by any whitespace
+     * and words by {@code /}; unknown symbols decode to {@code ?}.
+     *
+     * @param morseCode the Morse code to decode
+     * @return the decoded text, upper-cased and trimmed
+     */
     public String decode(String morseCode) {
-        StringBuilder result = new StringBuilder();
-        String[] words = morseCode.split(" / ");
-        for (String word : words) {
-            for (String symbol : word.split(" ")) {
-                result.append(reverseMap.getOrDefault(symbol, '?'));
+        return decode(morseCode, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Decodes Morse code into plain text using the given alphabet.
+     *
+     * @param morseCode the Morse code to decode
+     * @param alphabet  the alphabet to decode with
+     * @return the decoded text, upper-cased and trimmed
+     */
+    public String decode(String morseCode, MorseAlphabet alphabet) {
+        // Every decoded character needs at least one symbol character and one separator
+        StringBuilder result = new StringBuilder((morseCode.length() + 1) / 2);
+        try {
+            decode(morseCode, result, alphabet);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return result.toString();
+    }
+
+    /**
+     * Decodes Morse code, writing the text directly to the given destination.
+     *
+     * @param morseCode the Morse code to decode
+     * @param out       the destination for the decoded text
+     * @throws IOException if the destination fails to accept output
+     */
+    public void decode(CharSequence morseCode, Appendable out) throws IOException {
+        decode(morseCode, out, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Decodes Morse code using the given alphabet, writing the text directly to the
+     * given destination.
+     *
+     * @param morseCode the Morse code to decode
+     * @param out       the destination for the decoded text
+     * @param alphabet  the alphabet to decode with
+     * @throws IOException if the destination fails to accept output
+     */
+    public void decode(CharSequence morseCode, Appendable out, MorseAlphabet alphabet) throws IOException {
+        MorseDecoder decoder = new MorseDecoder(alphabet);
+        decoder.decode(morseCode, out);
+        countUnknownDecoded(decoder);
+    }
+
+    /**
+     * Decodes Morse code like {@link #decode(String, MorseAlphabet)}, splitting inputs of
+     * {@link #PARALLEL_THRESHOLD} characters or more at word breaks or whitespace into
+     * segments that are decoded on the common fork/join pool. The decoder drops word
+     * breaks at either end of a segment, so they are counted and put back when the
+     * pieces are joined into a result of exactly the right size.
+     *
+     * @param morseCode the Morse code to decode
+     * @param alphabet  the alphabet to decode with
+     * @return the decoded text, upper-cased and trimmed
+     */
+    public String decodeParallel(String morseCode, MorseAlphabet alphabet) {
+        if (morseCode.length() < PARALLEL_THRESHOLD) {
+            return decode(morseCode, alphabet);
+        }
+        int[] bounds = new int[morseCode.length() / PARALLEL_SEGMENT_SIZE + 2];
+        int count = 0;
+        for (int end = PARALLEL_SEGMENT_SIZE; end < morseCode.length(); end += PARALLEL_SEGMENT_SIZE) {
+            while (end < morseCode.length() && !isSeparator(morseCode.charAt(end))) {
+                end++;
+            }
+            if (end == morseCode.length()) {
+                break;
             }
-            result.append(" ");
+            bounds[++count] = end;
         }
-        return result.toString().trim();
+        bounds[++count] = morseCode.length();
+        int segments = count;
+
+        StringBuilder[] pieces = new StringBuilder[segments];
+        int[] leadingBreaks = new int[segments];
+        int[] trailingBreaks = new int[segments];
+        forEachSegment(segments, k -> {
+            int start = bounds[k];
+            int end = bounds[k + 1];
+            pieces[k] = new StringBuilder((end - start + 1) / 2);
+            decodeUnchecked(CharBuffer.wrap(morseCode, start, end), pieces[k], alphabet);
+            int i = start;
+            for (; i < end && isSeparator(morseCode.charAt(i)); i++) {
+                leadingBreaks[k] += morseCode.charAt(i) == '/' ? 1 : 0;
+            }
+            for (int j = end - 1; j >= i && isSeparator(morseCode.charAt(j)); j--) {
+                trailingBreaks[k] += morseCode.charAt(j) == '/' ? 1 : 0;
+            }
+        });
+
+        // Word breaks between two non-empty pieces become spaces, as in a single decode
+        int[] spaces = new int[segments];
+        int length = 0;
+        int pending = -1; // no text yet: breaks before the first character are dropped
+        for (int k = 0; k < segments; k++) {
+            if (pending >= 0) {
+                pending += leadingBreaks[k];
+            }
+            if (!pieces[k].isEmpty()) {
+                spaces[k] = Math.max(pending, 0);
+                length = Math.addExact(length, spaces[k] + pieces[k].length());
+                pending = trailingBreaks[k];
+            }
+        }
+        StringBuilder result = new StringBuilder(length);
+        for (int k = 0; k < segments; k++) {
+            result.repeat(' ', spaces[k]).append(pieces[k]);
+        }
+        return result.toString();
     }
 
     /**
-     * Generates Morse code audio (WAV format) for a given text.
+     * Decodes ASCII Morse code straight from bytes, producing the UTF-8 encoding of what
+     * {@link #decode(String, MorseAlphabet)} returns without building any strings. For
+     * the international alphabet the output is ASCII. The remaining bytes of the input
+     * are read without changing its position.
      *
-     * @param text the plain text to convert to Morse code audio
-     * @return byte array representing WAV audio
+     * @param morseCode the Morse code to decode
+     * @param alphabet  the alphabet to decode with
+     * @return a buffer holding the decoded text, from position zero
      */
-    public byte[] generateMorseAudio(String text) {
-        String morse = encode(text);
-        float sampleRate = 44100;
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+    public ByteBuffer decode(ByteBuffer morseCode, MorseAlphabet alphabet) {
+        Utf8Appendable out = new Utf8Appendable((morseCode.remaining() + 1) / 2);
+        decodeUnchecked(new ByteText(morseCode), out, alphabet);
+        return ByteBuffer.wrap(out.bytes, 0, out.length);
+    }
 
+    private void decodeUnchecked(CharSequence morseCode, Appendable out, MorseAlphabet alphabet) {
         try {
-            for (char c : morse.toCharArray()) {
-                switch (c) {
-                    case '.':
-                        addTone(out, sampleRate, 800, 0.1); // dot = 100 ms
-                        addSilence(out, sampleRate, 0.1);
-                        break;
-                    case '-':
-                        addTone(out, sampleRate, 800, 0.3); // dash = 300 ms
-                        addSilence(out, sampleRate, 0.1);
-                        break;
-                    case ' ':
-                        addSilence(out, sampleRate, 0.3); // inter-letter gap
-                        break;
-                    case '/':
-                        addSilence(out, sampleRate, 0.7); // inter-word gap
-                        break;
-                }
+            decode(morseCode, out, alphabet);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory destinations never throw
+        }
+    }
+
+    /** Whitespace and {@code /} end a Morse symbol, so segments may start at either. */
+    private static boolean isSeparator(char c) {
+        return c == '/' || c <= ' ';
+    }
+
+    /**
+     * Decodes a Morse code stream into plain text, reading and writing in fixed-size
+     * chunks. Symbols and word breaks split across chunk boundaries decode correctly.
+     *
+     * @param in  the Morse code to decode
+     * @param out the destination for the decoded text
+     * @throws IOException if reading or writing fails
+     */
+    public void decode(Reader in, Writer out) throws IOException {
+        decode(in, out, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Decodes a Morse code stream into plain text using the given alphabet.
+     *
+     * @param in       the Morse code to decode
+     * @param out      the destination for the decoded text
+     * @param alphabet the alphabet to decode with
+     * @throws IOException if reading or writing fails
+     */
+    public void decode(Reader in, Writer out, MorseAlphabet alphabet) throws IOException {
+        char[] buffer = new char[STREAM_CHUNK_SIZE];
+        CharBuffer chunk = CharBuffer.wrap(buffer);
+        MorseDecoder decoder = new MorseDecoder(alphabet);
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            decoder.feed(chunk, 0, n, out);
+        }
+        decoder.finish(out);
+        countUnknownDecoded(decoder);
+    }
+
+    /**
+     * Runs an action for each segment index on the common fork/join pool, halving the
+     * range until each task holds one segment.
+     */
+    private static void forEachSegment(int segments, IntConsumer action) {
+        ForkJoinPool.commonPool().invoke(new SegmentTask(0, segments, action));
+    }
+
+    private static final class SegmentTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final IntConsumer action;
+
+        SegmentTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SegmentTask(from, mid, action), new SegmentTask(mid, to, action));
             }
+        }
+    }
+
+    /**
+     * Writes into a slice of a shared array that was sized exactly beforehand.
+     */
+    private static final class CharArrayAppendable implements Appendable {
+
+        private final char[] array;
+        private int position;
+
+        CharArrayAppendable(char[] array, int position) {
+            this.array = array;
+            this.position = position;
+        }
+
+        @Override
+        public Appendable append(CharSequence text) {
+            String string = text.toString(); // symbols are already strings
+            string.getChars(0, string.length(), array, position);
+            position += string.length();
+            return this;
+        }
 
-            byte[] audioData = out.toByteArray();
-            AudioFormat format = new AudioFormat(sampleRate, 8, 1, true, false);
-            ByteArrayInputStream bais = new ByteArrayInputStream(audioData);
-            AudioInputStream audioStream = new AudioInputStream(bais, format, audioData.length);
+        @Override
+        public Appendable append(CharSequence text, int start, int end) {
+            return append(text.subSequence(start, end));
+        }
 
-            ByteArrayOutputStream wavOut = new ByteArrayOutputStream();
-            AudioSystem.write(audioStream, AudioFileFormat.Type.WAVE, wavOut);
+        @Override
+        public Appendable append(char c) {
+            array[position++] = c;
+            return this;
+        }
+    }
 
-            return wavOut.toByteArray();
+    /**
+     * Collects decoded text as UTF-8 in a growable array.
+     */
+    private static final class Utf8Appendable implements Appendable {
+
+        private byte[] bytes;
+        private int length;
+
+        Utf8Appendable(int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
 
+        @Override
+        public Appendable append(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                append(text.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence text, int start, int end) {
+            for (int i = start; i < end; i++) {
+                append(text.charAt(i));
+            }
+            return this;
+        }
+
+        // Decoded characters come from alphabet files, which hold single UTF-16 units
+        @Override
+        public Appendable append(char c) {
+            if (length + 3 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, length + 3));
+            }
+            if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | c >> 6);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                bytes[length++] = (byte) (0xE0 | c >> 12);
+                bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            }
+            return this;
+        }
+    }
+
+    private void countUnknownDecoded(MorseDecoder decoder) {
+        if (decoder.unknownCount() > 0) {
+            unknownDecoded.add(decoder.unknownCount());
+        }
+    }
+
+    /**
+     * Returns how many characters of the given text have no Morse symbol, without adding
+     * them to {@link #unknownEncodedCount()}.
+     *
+     * @param text     the plain text to check
+     * @param alphabet the alphabet it would be encoded with
+     * @return the number of characters that would encode as {@code ?}
+     */
+    public int unknownCharacters(CharSequence text, MorseAlphabet alphabet) {
+        try {
+            return encodeUncounted(text, Writer.nullWriter(), alphabet);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // the null writer never throws
+        }
+    }
+
+    /**
+     * Returns how many symbols of the given Morse code are not recognised, without adding
+     * them to {@link #unknownDecodedCount()}.
+     *
+     * @param morseCode the Morse code to check
+     * @param alphabet  the alphabet it would be decoded with
+     * @return the number of symbols that would decode as {@code ?}
+     */
+    public long unknownSymbols(CharSequence morseCode, MorseAlphabet alphabet) {
+        MorseDecoder decoder = new MorseDecoder(alphabet);
+        try {
+            decoder.decode(morseCode, Writer.nullWriter());
         } catch (IOException e) {
-            e.printStackTrace();
-            return new byte[0];
+            throw new UncheckedIOException(e); // the null writer never throws
         }
+        return decoder.unknownCount();
     }
 
-    private void addTone(ByteArrayOutputStream out, float sampleRate, int freq, double durationSeconds) {
-        int samples = (int)(durationSeconds * sampleRate);
-        for (int i = 0; i < samples; i++) {
-            double angle = 2.0 * Math.PI * freq * i / sampleRate;
-            out.write((byte)(Math.sin(angle) * 127));  // 8-bit PCM, -128 to 127
+    /**
+     * Adds to the unknown-character count for a result served without encoding, such as
+     * one taken from a cache.
+     *
+     * @param count the number of characters that encoded as {@code ?}
+     */
+    public void recordUnknownEncoded(long count) {
+        if (count > 0) {
+            unknownEncoded.add(count);
+        }
+    }
+
+    /**
+     * Adds to the unknown-symbol count for a result served without decoding, such as one
+     * taken from a cache.
+     *
+     * @param count the number of symbols that decoded as {@code ?}
+     */
+    public void recordUnknownDecoded(long count) {
+        if (count > 0) {
+            unknownDecoded.add(count);
         }
     }
 
-    private void addSilence(ByteArrayOutputStream out, float sampleRate, double durationSeconds) {
-        int samples = (int)(durationSeconds * sampleRate);
-        for (int i = 0; i < samples; i++) {
-            out.write(0);
+    /**
+     * Returns how many characters have been encoded as {@code ?} because they have no
+     * Morse symbol, including text rendered as audio. Each translation or rendering counts
+     * once; measuring audio with {@link #morseAudioLength(String, AudioSettings)} does not.
+     *
+     * @return the total number of unknown characters encoded
+     */
+    public long unknownEncodedCount() {
+        return unknownEncoded.sum();
+    }
+
+    /**
+     * Returns how many symbols have been decoded as {@code ?} because they are not in
+     * the table or contain characters other than dots and dashes.
+     *
+     * @return the total number of unknown symbols decoded
+     */
+    public long unknownDecodedCount() {
+        return unknownDecoded.sum();
+    }
+
+    /**
+     * Generates Morse code audio (WAV format) for a given text.
+     *
+     * @param text the plain text to convert to Morse code audio
+     * @return byte array representing WAV audio
+     */
+    public byte[] generateMorseAudio(String text) {
+        return generateMorseAudio(text, AudioSettings.DEFAULT);
+    }
+
+    /**
+     * Generates Morse code audio (WAV format) for a given text with the given settings.
+     *
+     * @param text     the plain text to convert to Morse code audio
+     * @param settings speed, tone and sample format of the audio
+     * @return byte array representing WAV audio
+     */
+    public byte[] generateMorseAudio(String text, AudioSettings settings) {
+        return MorseAudioRenderer.of(settings).renderWav(encode(text));
+    }
+
+    /**
+     * Returns the size in bytes of the WAV file {@link #generateMorseAudio(String, AudioSettings)}
+     * produces for a given text, without rendering any audio. The size is counted from the
+     * symbols as they are encoded and the settings alone, so no Morse code string is built
+     * and no renderer is looked up, and nothing is added to the unknown-character count.
+     *
+     * @param text     the plain text to measure
+     * @param settings speed, tone and sample format of the audio
+     * @return the WAV file size in bytes
+     */
+    public long morseAudioLength(String text, AudioSettings settings) {
+        MorseAudioRenderer.LengthCounter length = new MorseAudioRenderer.LengthCounter(settings);
+        try {
+            encodeUncounted(text, length, MorseAlphabet.defaultAlphabet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // the counter never throws
+        }
+        return length.wavLength();
+    }
+
+    /**
+     * Streams Morse code audio (WAV format) for a given text in fixed-size chunks.
+     *
+     * @param text     the plain text to convert to Morse code audio
+     * @param settings speed, tone and sample format of the audio
+     * @param out      the destination for the WAV bytes
+     * @throws IOException if writing fails
+     */
+    public void writeMorseAudio(String text, AudioSettings settings, OutputStream out) throws IOException {
+        MorseAudioRenderer.of(settings).writeWav(encode(text), out);
+    }
+
+    /**
+     * Describes the Morse code audio for a given text as a compact JSON list of tone
+     * events, from which a client can synthesize the audio locally.
+     *
+     * @param text     the plain text to describe
+     * @param settings speed and tone of the audio
+     * @return the tone events as JSON
+     */
+    public String generateToneEvents(String text, AudioSettings settings) {
+        return MorseAudioRenderer.of(settings).toneEvents(encode(text));
+    }
+
+    /**
+     * Decodes Morse code audio from a WAV stream, frame by frame, writing text as each
+     * symbol is recognised. Memory use does not depend on the length of the recording.
+     *
+     * @param wav       the WAV stream to decode
+     * @param frequency the tone frequency to listen for, in Hz
+     * @param out       the destination for the decoded text
+     * @throws IOException if reading or writing fails
+     */
+    public void decodeMorseAudio(InputStream wav, int frequency, Writer out) throws IOException {
+        new MorseAudioDecoder(frequency).decode(wav, out);
+    }
+
+    /**
+     * Decodes hand-keyed Morse code from a stream of key-down and key-up durations in
+     * milliseconds, in the format read by {@link TimingEventParser}. The dot length adapts
+     * to the operator, so {@code wpm} only needs to be roughly right. Text is written as
+     * each character is recognised, and memory use does not depend on the stream's length.
+     *
+     * @param events   the durations, positive for tones and negative for silences
+     * @param wpm      the expected keying speed in words per minute
+     * @param out      the destination for the decoded text
+     * @param alphabet the alphabet to decode with
+     * @throws IOException              if reading or writing fails
+     * @throws IllegalArgumentException if the events are malformed
+     */
+    public void decodeTimings(Reader events, int wpm, Writer out, MorseAlphabet alphabet) throws IOException {
+        TimingEventParser parser = new TimingEventParser(
+                new MorseTimingDecoder(MorseTimingDecoder.dotMillis(wpm), out, alphabet));
+        char[] buffer = new char[STREAM_CHUNK_SIZE];
+        CharBuffer chunk = CharBuffer.wrap(buffer);
+        int n;
+        while ((n = events.read(buffer)) != -1) {
+            parser.feed(chunk, 0, n);
         }
+        parser.finish();
     }
 }
@@ -0,0 +1,300 @@
+package com.capaciti.morse.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * MorseTimingDecoder turns a sequence of tone and silence durations into text.
+ * <p>
+ * Durations may be in any unit, such as samples or milliseconds, as long as they are
+ * consistent. Each tone is classified against a running estimate of the dot length: tones
+ * of two dots or more are dashes. Silences of under two dots separate elements, under five
+ * dots letters, and anything longer is one word break per seven dots, so consecutive word
+ * breaks survive a round trip through {@link MorseAudioRenderer}.
+ * <p>
+ * The dot estimate adapts to the sender. The first few tones are held back and, when
+ * they include both dots and dashes, the split between the short and long ones sets the
+ * initial estimate; only then are they decoded. After that every tone pulls the estimate
+ * towards its implied dot length. The seed is used only when the opening tones are all
+ * alike. A tone shorter than half a dot is taken for a glitch: it is dropped and the
+ * silences either side of it count as one. Only several such tones in a row mean the
+ * sender has sped up, and then their average becomes the new estimate.
+ * Memory use stays constant. The resulting symbols are fed to a {@link MorseDecoder}
+ * for the chosen alphabet, so unknown symbols decode to {@code ?} and leading and
+ * trailing silence is dropped. Each character is written as soon as the silence that
+ * ends it has been fed.
+ * <p>
+ * Instances are not thread-safe and should be used for one stream at a time.
+ */
+public class MorseTimingDecoder {
+
+    /** Weight given to each new tone when updating the dot estimate. */
+    private static final double SMOOTHING = 0.25;
+
+    /** Tones held back to learn the sender's speed before anything is decoded, by default. */
+    private static final int CALIBRATION_TONES = 16;
+
+    /** Short tones in a row taken as a change of speed rather than glitches. */
+    private static final int SPEEDUP_TONES = 3;
+
+    private final MorseDecoder decoder;
+    private final Appendable out;
+    private final double initialDotLength;
+
+    private double dotLength;
+    private boolean started;
+
+    // Silence since the last tone, and how much of it has been decoded: 0 nothing, 1 a
+    // letter break, 1 + n that many word breaks
+    private double gap;
+    private long gapLevel;
+
+    // Tones too short to be dots since the last tone that was not
+    private int shortTones;
+    private double shortTotal;
+
+    // Opening events awaiting calibration: tones positive, silences negative
+    private final int calibrationSize;
+    private final double[] calibration;
+    private int calibrationEvents;
+    private int calibrationTones;
+    private boolean calibrated;
+
+    /**
+     * Creates a decoder.
+     *
+     * @param dotLength the expected length of a dot, used until the sender's speed is learned
+     * @param out       the destination for the decoded text
+     */
+    public MorseTimingDecoder(double dotLength, Appendable out) {
+        this(dotLength, out, MorseAlphabet.defaultAlphabet());
+    }
+
+    /**
+     * Creates a decoder for the given alphabet.
+     *
+     * @param dotLength the expected length of a dot, used until the sender's speed is learned
+     * @param out       the destination for the decoded text
+     * @param alphabet  the alphabet whose symbols are recognised
+     */
+    public MorseTimingDecoder(double dotLength, Appendable out, MorseAlphabet alphabet) {
+        this(dotLength, out, alphabet, CALIBRATION_TONES);
+    }
+
+    /**
+     * Creates a decoder that holds back the given number of opening tones. Fewer tones
+     * get the first characters out sooner, as a live sender expects, at the cost of a
+     * rougher first estimate.
+     *
+     * @param dotLength        the expected length of a dot, used until the sender's speed is learned
+     * @param out              the destination for the decoded text
+     * @param alphabet         the alphabet whose symbols are recognised
+     * @param calibrationTones how many opening tones to learn the sender's speed from
+     */
+    public MorseTimingDecoder(double dotLength, Appendable out, MorseAlphabet alphabet, int calibrationTones) {
+        if (!(dotLength > 0)) {
+            throw new IllegalArgumentException("dotLength must be positive, was " + dotLength);
+        }
+        if (calibrationTones < 1) {
+            throw new IllegalArgumentException("calibrationTones must be at least 1, was " + calibrationTones);
+        }
+        this.initialDotLength = dotLength;
+        this.dotLength = dotLength;
+        this.out = out;
+        this.decoder = new MorseDecoder(alphabet);
+        this.calibrationSize = calibrationTones;
+        this.calibration = new double[2 * calibrationTones];
+    }
+
+    /**
+     * Returns the length of a dot in milliseconds at the given speed, using the standard
+     * word PARIS, which lasts 50 dots.
+     *
+     * @param wpm the speed in words per minute
+     * @return the dot length in milliseconds
+     * @throws IllegalArgumentException if the speed is not positive
+     */
+    public static double dotMillis(int wpm) {
+        if (wpm < 1) {
+            throw new IllegalArgumentException("wpm must be at least 1, was " + wpm);
+        }
+        return 1200.0 / wpm;
+    }
+
+    /**
+     * Returns the current estimate of the dot length.
+     *
+     * @return the dot length, in the units of the durations fed so far
+     */
+    public double dotLength() {
+        return dotLength;
+    }
+
+    /**
+     * Feeds a tone. Tones that are not positive are ignored.
+     *
+     * @param duration how long the tone lasted
+     * @throws IOException if the destination fails to accept output
+     */
+    public void tone(double duration) throws IOException {
+        if (!(duration > 0)) {
+            return;
+        }
+        if (!calibrated) {
+            calibration[calibrationEvents++] = duration;
+            if (++calibrationTones == calibrationSize) {
+                calibrate();
+            }
+            return;
+        }
+        if (duration < dotLength / 2) {
+            shortTotal += duration;
+            if (++shortTones < SPEEDUP_TONES) {
+                return; // a glitch, unless more follow
+            }
+            // The sender is faster than assumed; the run so far was one letter's dots
+            dotLength = shortTotal / shortTones;
+            for (int i = 1; i < shortTones; i++) {
+                decoder.feed(".", 0, 1, out);
+            }
+        }
+        shortTones = 0;
+        shortTotal = 0;
+        boolean dash = duration >= 2 * dotLength;
+        dotLength += SMOOTHING * ((dash ? duration / 3 : duration) - dotLength);
+        decoder.feed(dash ? "-" : ".", 0, 1, out);
+        started = true;
+        gap = 0;
+        gapLevel = 0;
+    }
+
+    /**
+     * Feeds a silence. Silences that are not positive are ignored.
+     *
+     * @param duration how long the silence lasted
+     * @throws IOException if the destination fails to accept output
+     */
+    public void silence(double duration) throws IOException {
+        if (!(duration > 0)) {
+            return;
+        }
+        if (!calibrated) {
+            if (calibrationTones > 0) {
+                if (calibration[calibrationEvents - 1] < 0) {
+                    calibration[calibrationEvents - 1] -= duration; // merge consecutive silences
+                } else {
+                    calibration[calibrationEvents++] = -duration;
+                }
+            }
+            return;
+        }
+        if (!started) {
+            return;
+        }
+        gap += duration;
+        double dots = gap / dotLength;
+        long level = dots < 2 ? 0 : dots < 5 ? 1 : 1 + Math.max(1, Math.round(dots / 7));
+        if (level == 1 && gapLevel == 0) {
+            decoder.feed(" ", 0, 1, out);
+        }
+        for (long words = Math.max(1, gapLevel); words < level; words++) {
+            decoder.feed("/", 0, 1, out);
+        }
+        gapLevel = Math.max(gapLevel, level);
+    }
+
+    /**
+     * Flushes the last symbol and resets the decoder, including its dot estimate, so it
+     * can be reused for another stream.
+     *
+     * @throws IOException if the destination fails to accept output
+     */
+    public void finish() throws IOException {
+        if (!calibrated && calibrationTones > 0) {
+            calibrate();
+        }
+        decoder.finish(out);
+        dotLength = initialDotLength;
+        started = false;
+        gap = 0;
+        gapLevel = 0;
+        shortTones = 0;
+        shortTotal = 0;
+        calibrated = false;
+        calibrationEvents = 0;
+        calibrationTones = 0;
+    }
+
+    /**
+     * Sets the dot estimate from the held-back tones and decodes them. Tones under a
+     * quarter of the median are glitches and are left out, joining the silences around
+     * them. When the longest tone is at least twice the shortest, tones are split at their
+     * geometric mean and the dot length is averaged over both groups, dashes counting as
+     * three dots. When the tones are all alike, the gaps between elements, which last one
+     * dot, tell dots from dashes; failing that the seed stands.
+     */
+    private void calibrate() throws IOException {
+        double glitch = medianTone() / 4;
+        double shortest = Double.MAX_VALUE;
+        double longest = 0;
+        double shortestGap = Double.MAX_VALUE;
+        double silence = 0;
+        boolean toned = false;
+        for (int i = 0; i < calibrationEvents; i++) {
+            double event = calibration[i];
+            if (event < 0) {
+                silence -= event;
+            } else if (event >= glitch) {
+                if (toned) {
+                    shortestGap = Math.min(shortestGap, silence);
+                }
+                shortest = Math.min(shortest, event);
+                longest = Math.max(longest, event);
+                silence = 0;
+                toned = true;
+            }
+        }
+        if (shortestGap < shortest / 2) {
+            dotLength = shortestGap; // dashes separated by element gaps
+        } else if (shortestGap <= 1.5 * shortest && longest < 2 * shortest) {
+            dotLength = shortest; // dots separated by element gaps
+        }
+        if (longest >= 2 * shortest) {
+            double split = Math.sqrt(shortest * longest);
+            double dots = 0;
+            double total = 0;
+            for (int i = 0; i < calibrationEvents; i++) {
+                double tone = calibration[i];
+                if (tone >= glitch) {
+                    dots += tone < split ? 1 : 3;
+                    total += tone;
+                }
+            }
+            dotLength = total / dots;
+        }
+
+        calibrated = true;
+        for (int i = 0; i < calibrationEvents; i++) {
+            double event = calibration[i];
+            if (event > 0) {
+                tone(event);
+            } else {
+                silence(-event);
+            }
+        }
+        calibrationEvents = 0;
+        calibrationTones = 0;
+    }
+
+    private double medianTone() {
+        double[] tones = new double[calibrationTones];
+        int count = 0;
+        for (int i = 0; i < calibrationEvents; i++) {
+            if (calibration[i] > 0) {
+                tones[count++] = calibration[i];
+            }
+        }
+        Arrays.sort(tones);
+        return tones[count / 2];
+    }
+}
@@ -0,0 +1,105 @@
+package com.capaciti.morse.service;
+
+import java.io.IOException;
+
+/**
+ * TimingEventParser reads key-down and key-up durations from text and feeds them to a
+ * {@link MorseTimingDecoder}.
+ * <p>
+ * Durations are decimal numbers, positive for a tone (key down) and negative for a
+ * silence (key up), separated by whitespace or commas; square brackets are ignored, so
+ * a JSON array is accepted too. This is the sign convention of the tone events produced
+ * by {@link MorseService#generateToneEvents(String, AudioSettings)}. Input may be fed in
+ * arbitrary chunks, and a number split across two chunks is read correctly; only the
+ * number being read is kept, so memory use is constant.
+ * <p>
+ * Instances are not thread-safe and should be used for one stream at a time.
+ */
+public final class TimingEventParser {
+
+    private final MorseTimingDecoder decoder;
+
+    // The number being read
+    private boolean reading;
+    private boolean negative;
+    private boolean digits;
+    private boolean fraction;
+    private double value;
+    private double scale;
+
+    /**
+     * Creates a parser that feeds the given decoder.
+     *
+     * @param decoder the decoder to feed with each duration
+     */
+    public TimingEventParser(MorseTimingDecoder decoder) {
+        this.decoder = decoder;
+    }
+
+    /**
+     * Feeds a chunk of text. Each duration is passed on as soon as the separator after it
+     * is read.
+     *
+     * @param text  the buffer holding the chunk
+     * @param start index of the first character to read
+     * @param end   index after the last character to read
+     * @throws IOException              if the decoder's destination fails to accept output
+     * @throws IllegalArgumentException if the text is not a list of numbers
+     */
+    public void feed(CharSequence text, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (fraction) {
+                    scale /= 10;
+                    value += (c - '0') * scale;
+                } else {
+                    value = value * 10 + (c - '0');
+                }
+                reading = true;
+                digits = true;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+                scale = 1;
+                reading = true;
+            } else if ((c == '-' || c == '+') && !reading) {
+                negative = c == '-';
+                reading = true;
+            } else if (c <= ' ' || c == ',' || c == '[' || c == ']') {
+                endNumber();
+            } else {
+                throw new IllegalArgumentException("Unexpected character '" + c + "' in timing events");
+            }
+        }
+    }
+
+    /**
+     * Passes on the last duration and finishes the decoder, flushing the last character.
+     *
+     * @throws IOException              if the decoder's destination fails to accept output
+     * @throws IllegalArgumentException if the text ends in the middle of a number
+     */
+    public void finish() throws IOException {
+        endNumber();
+        decoder.finish();
+    }
+
+    private void endNumber() throws IOException {
+        if (!reading) {
+            return;
+        }
+        if (!digits) {
+            throw new IllegalArgumentException("Incomplete number in timing events");
+        }
+        if (negative) {
+            decoder.silence(value);
+        } else {
+            decoder.tone(value);
+        }
+        reading = false;
+        negative = false;
+        digits = false;
+        fraction = false;
+        value = 0;
+    }
+}
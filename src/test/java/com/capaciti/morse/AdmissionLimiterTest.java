@@ -0,0 +1,68 @@
+package com.capaciti.morse;
+
+import com.capaciti.morse.config.AdmissionLimiter;
+import com.capaciti.morse.config.AdmissionLimiter.Admission;
+import com.capaciti.morse.config.AdmissionLimiter.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testClientBucketRefillsAtItsRate() {
+        AtomicLong clock = new AtomicLong(5 * SECOND);
+        AdmissionLimiter limiter = new AdmissionLimiter(100, 300, 10_000, 10, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.release(limiter.admit("a", 100)); // the burst
+        }
+        Admission limited = limiter.admit("a", 100);
+        assertEquals(Outcome.CLIENT_LIMITED, limited.outcome());
+        assertEquals(1, limited.retryAfterSeconds());
+        assertTrue(limiter.admit("b", 100).admitted(), "other clients have their own bucket");
+
+        clock.addAndGet(SECOND); // refills 100
+        Admission admitted = limiter.admit("a", 100);
+        assertTrue(admitted.admitted());
+        limiter.release(admitted);
+        assertFalse(limiter.admit("a", 100).admitted());
+        assertEquals(2, limiter.clientLimitedCount());
+    }
+
+    @Test
+    void testGlobalBudgetBoundsRequestsInProgress() {
+        AdmissionLimiter limiter = new AdmissionLimiter(1_000_000, 1_000_000, 100, 10, () -> 0);
+
+        Admission first = limiter.admit("a", 60);
+        Admission second = limiter.admit("b", 60);
+        assertTrue(first.admitted());
+        assertEquals(Outcome.OVERLOADED, second.outcome());
+        assertEquals(60, limiter.inFlightCost());
+
+        limiter.release(first);
+        assertEquals(0, limiter.inFlightCost());
+        Admission huge = limiter.admit("b", 1_000);
+        assertTrue(huge.admitted(), "an oversized request is admitted when nothing else runs");
+        assertEquals(100, huge.cost());
+        limiter.release(huge);
+        assertEquals(0, limiter.inFlightCost());
+        assertEquals(1, limiter.overloadedCount());
+    }
+
+    @Test
+    void testForgetsIdleClients() {
+        AtomicLong clock = new AtomicLong();
+        AdmissionLimiter limiter = new AdmissionLimiter(1_000, 1_000, 1_000_000, 2, clock::get);
+        limiter.release(limiter.admit("a", 1_000));
+        limiter.release(limiter.admit("b", 1_000));
+        clock.addAndGet(2 * SECOND); // both buckets are full again
+        limiter.release(limiter.admit("c", 1_000));
+
+        assertEquals(1, limiter.clientCount());
+    }
+}
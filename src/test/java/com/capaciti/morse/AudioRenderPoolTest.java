@@ -0,0 +1,32 @@
+package com.capaciti.morse;
+
+import com.capaciti.morse.config.AudioRenderPool;
+import com.capaciti.morse.config.AudioRenderPool.StreamSlot;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioRenderPoolTest {
+
+    @Test
+    void testStreamsAreBoundedBySlots() {
+        try (AudioRenderPool pool = new AudioRenderPool(1, 1, 2)) {
+            StreamSlot first = pool.openStream();
+            StreamSlot second = pool.openStream();
+            assertThrows(RejectedExecutionException.class, pool::openStream);
+            assertEquals(2, pool.streamingCount());
+
+            first.close();
+            first.close(); // a second close must not free another slot
+            assertEquals(1, pool.streamingCount());
+            StreamSlot third = pool.openStream();
+            assertThrows(RejectedExecutionException.class, pool::openStream);
+
+            second.close();
+            third.close();
+            assertEquals(0, pool.streamingCount());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.capaciti.morse;
+
+import com.capaciti.morse.service.BoundedLruCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedLruCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsedByCount() {
+        BoundedLruCache<String, String> cache = new BoundedLruCache<>(2, 1_000, (k, v) -> v.length());
+        cache.get("a", k -> "A");
+        cache.get("b", k -> "B");
+        cache.get("a", k -> "unused"); // a is now most recently used
+        cache.get("c", k -> "C");      // evicts b
+
+        assertEquals("A", cache.get("a", k -> "reloaded"));
+        assertEquals("reloaded", cache.get("b", k -> "reloaded"));
+        assertEquals(2, cache.hitCount());
+        assertEquals(4, cache.missCount());
+        assertEquals(2, cache.evictionCount());
+    }
+
+    @Test
+    void testEvictsByWeightAndSkipsOversizedValues() {
+        BoundedLruCache<String, String> cache = new BoundedLruCache<>(100, 10, (k, v) -> v.length());
+        cache.get("a", k -> "aaaa");
+        cache.get("b", k -> "bbbb");
+        cache.get("c", k -> "cccc"); // 12 > 10, evicts a
+
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.weight());
+
+        cache.get("big", k -> "x".repeat(11));
+        assertEquals(2, cache.size(), "values heavier than the budget are not cached");
+    }
+}
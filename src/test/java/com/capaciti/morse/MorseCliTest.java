@@ -0,0 +1,58 @@
+package com.capaciti.morse;
+
+import com.capaciti.morse.service.MorseAlphabet;
+import com.capaciti.morse.service.MorseService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MorseCliTest {
+
+    @TempDir
+    Path dir;
+
+    private final MorseService morseService = new MorseService();
+
+    @Test
+    void testChunkedEncodeMatchesWholeFile() throws IOException {
+        String[] words = {"SOS", "hello", "<SK>", "Ελλάδα", "a", "?!", "1234567890"};
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 20_000) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextInt(8) == 0 ? "\n" : " ");
+        }
+
+        for (int chunkSize : new int[]{1, 7, 1000, MorseCli.DEFAULT_CHUNK_SIZE}) {
+            assertEquals(morseService.encode(text.toString()), translate(true, text.toString(), chunkSize));
+        }
+    }
+
+    @Test
+    void testChunkedDecodeMatchesWholeFile() throws IOException {
+        String[] symbols = {"...", "---", ".-", "/", " / ", "//", "  ", "\n", "........", "-.-.--"};
+        Random random = new Random(7);
+        StringBuilder code = new StringBuilder("/ ");
+        while (code.length() < 20_000) {
+            code.append(symbols[random.nextInt(symbols.length)]).append(' ');
+        }
+        code.append(" / /");
+
+        for (int chunkSize : new int[]{1, 5, 1000, MorseCli.DEFAULT_CHUNK_SIZE}) {
+            assertEquals(morseService.decode(code.toString()), translate(false, code.toString(), chunkSize));
+        }
+    }
+
+    private String translate(boolean encode, String input, int chunkSize) throws IOException {
+        Path in = Files.writeString(dir.resolve("in.txt"), input, StandardCharsets.UTF_8);
+        Path out = dir.resolve("out.txt");
+        new MorseCli(encode, MorseAlphabet.defaultAlphabet(), 4, chunkSize).translate(in, out);
+        return Files.readString(out, StandardCharsets.UTF_8);
+    }
+}
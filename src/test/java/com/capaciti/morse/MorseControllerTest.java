@@ -0,0 +1,85 @@
+package com.capaciti.morse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MorseControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void testInvalidParametersAreRejectedWithTheirMessage() throws Exception {
+        HttpResponse<String> alphabet = get("/encode?text=SOS&alphabet=klingon");
+        assertEquals(400, alphabet.statusCode());
+        assertEquals("Unknown alphabet: klingon", alphabet.body());
+
+        HttpResponse<String> bitDepth = get("/sound?text=SOS&bitDepth=12");
+        assertEquals(400, bitDepth.statusCode());
+        assertTrue(bitDepth.body().startsWith("bitDepth must be 8 or 16"), bitDepth.body());
+
+        assertEquals(400, get("/sound?text=SOS&format=mp3").statusCode());
+        assertEquals(400, post("/listen", "not a wav file").statusCode());
+        assertEquals(400, post("/timing", "60,-60,x").statusCode());
+        assertEquals(400, post("/batch", "[{\"message\":\"SOS\",\"alphabet\":\"klingon\"}]", "application/json")
+                .statusCode());
+    }
+
+    @Test
+    void testValidRequestsSucceed() throws Exception {
+        assertEquals("... --- ...", get("/encode?text=SOS").body());
+    }
+
+    @Test
+    void testSoundIsServedInEveryForm() throws Exception {
+        HttpResponse<byte[]> buffered = getBytes("/sound?text=SOS");
+        HttpResponse<byte[]> streamed = getBytes("/sound?text=SOS&stream=true");
+        assertEquals(200, buffered.statusCode());
+        assertEquals(200, streamed.statusCode());
+        assertEquals("RIFF", new String(buffered.body(), 0, 4, StandardCharsets.US_ASCII));
+        assertArrayEquals(buffered.body(), streamed.body());
+        assertEquals(String.valueOf(buffered.body().length),
+                buffered.headers().firstValue("Content-Length").orElse(null));
+
+        HttpResponse<String> events = get("/sound?text=E&format=events");
+        assertEquals(200, events.statusCode());
+        assertTrue(events.body().startsWith("{"), events.body());
+        assertEquals(200, get("/sound?text=SOS&format=ulaw").statusCode());
+    }
+
+    private HttpResponse<byte[]> getBytes(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return post(path, body, "text/plain");
+    }
+
+    private HttpResponse<String> post(String path, String body, String contentType) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + "/api/morse" + path);
+    }
+}
@@ -0,0 +1,111 @@
+package com.capaciti.morse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "morse.live.max-message-size=64",
+        "morse.live.idle-timeout-ms=500"
+})
+class MorseKeyingHandlerTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void testSymbolsSplitAcrossFrames() throws Exception {
+        Client client = connect("");
+        for (String frame : new String[] {"..", ". ---", " ... "}) {
+            client.session.sendMessage(new TextMessage(frame));
+        }
+        assertEquals("SOS", client.await("SOS"));
+        client.session.close();
+    }
+
+    @Test
+    void testTimingsDecodeAsTheyArrive() throws Exception {
+        Client client = connect("?mode=timing&wpm=20");
+        client.session.sendMessage(new TextMessage("60,-60,60,-60,60,-180,"));
+        // The speed is learned by the fourth tone, so the first letter is out before the second ends
+        client.session.sendMessage(new TextMessage("180,-60,180,-60,180,"));
+        assertEquals("S", client.await("S"));
+        client.session.sendMessage(new TextMessage("-180,60,-60,60,-60,60,-420,"));
+        assertEquals("SOS", client.await("SOS"));
+        client.session.close();
+    }
+
+    @Test
+    void testOversizedFrameClosesSession() throws Exception {
+        Client client = connect("");
+        client.session.sendMessage(new TextMessage(".".repeat(65)));
+        CloseStatus status = client.closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(CloseStatus.TOO_BIG_TO_PROCESS.getCode(), status.getCode());
+        assertEquals("", client.received.toString());
+    }
+
+    @Test
+    void testIdleSessionIsClosed() throws Exception {
+        Client client = connect("");
+        // The container checks for expired sessions every few seconds
+        CloseStatus status = client.closed.get(15, TimeUnit.SECONDS);
+        assertEquals(CloseStatus.GOING_AWAY.getCode(), status.getCode());
+    }
+
+    @Test
+    void testUnknownModeClosesSession() throws Exception {
+        Client client = connect("?mode=semaphore");
+        CloseStatus status = client.closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(CloseStatus.POLICY_VIOLATION.getCode(), status.getCode());
+    }
+
+    private Client connect(String query) throws Exception {
+        Client client = new Client();
+        URI uri = URI.create("ws://localhost:" + port + "/api/morse/live" + query);
+        client.session = new StandardWebSocketClient().execute(client, null, uri)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return client;
+    }
+
+    /** Collects what the server sends back and how the session ended. */
+    private static final class Client extends TextWebSocketHandler {
+
+        final StringBuffer received = new StringBuffer();
+        final CompletableFuture<CloseStatus> closed = new CompletableFuture<>();
+        WebSocketSession session;
+
+        @Override
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+            synchronized (this) {
+                received.append(message.getPayload());
+                notifyAll();
+            }
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+            closed.complete(status);
+        }
+
+        synchronized String await(String expected) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (!received.toString().equals(expected) && System.nanoTime() < deadline) {
+                wait(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1);
+            }
+            return received.toString();
+        }
+    }
+}
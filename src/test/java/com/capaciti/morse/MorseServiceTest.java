@@ -1,10 +1,32 @@
 package com.capaciti.morse;
 
+import com.capaciti.morse.model.MorseRequest;
+import com.capaciti.morse.model.MorseResponse;
+import com.capaciti.morse.service.AudioEncoding;
+import com.capaciti.morse.service.AudioSettings;
+import com.capaciti.morse.service.MorseAlphabet;
+import com.capaciti.morse.service.MorseCodeService;
 import com.capaciti.morse.service.MorseService;
+import com.capaciti.morse.service.MorseTimingDecoder;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -15,6 +37,9 @@ class MorseServiceTest {
     @Autowired
     private MorseService morseService;
 
+    @Autowired
+    private MorseCodeService morseCodeService;
+
     private static final String VALID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
 
     /**
@@ -47,6 +72,100 @@ class MorseServiceTest {
         }
     }
 
+    @Test
+    void testEncodeToAppendableMatchesEncodeAndLength() throws Exception {
+        String input = generateRandomValidString(50).toLowerCase() + "!";
+        String encoded = morseService.encode(input);
+
+        StringBuilder out = new StringBuilder();
+        morseService.encode(input, out);
+
+        assertEquals(encoded, out.toString());
+        assertEquals(encoded.length(), morseService.encodedLength(input));
+        assertEquals("", morseService.encode(""));
+    }
+
+    /**
+     * The original split-based decoder, kept as a reference for the single-pass decoder.
+     */
+    private String splitDecode(String morseCode) {
+        Map<String, Character> reverseMap = new HashMap<>();
+        for (char c : VALID_CHARS.toCharArray()) {
+            reverseMap.put(morseService.encode(String.valueOf(c)), c);
+        }
+        StringBuilder result = new StringBuilder();
+        for (String word : morseCode.split(" / ")) {
+            for (String symbol : word.split(" ")) {
+                result.append(reverseMap.getOrDefault(symbol, '?'));
+            }
+            result.append(" ");
+        }
+        return result.toString().trim();
+    }
+
+    @Test
+    void testDecodeMatchesSplitBasedDecoder() {
+        for (int i = 0; i < 100; i++) {
+            String encoded = morseService.encode(generateRandomValidString(20));
+            assertEquals(splitDecode(encoded), morseService.decode(encoded));
+        }
+    }
+
+    @Test
+    void testDecodeToleratesIrregularWhitespace() {
+        assertEquals("SOS", morseService.decode("...  ---\t...\n"));
+        assertEquals("S O S", morseService.decode(".../---/ ..."));
+        assertEquals("HI", morseService.decode(" / .... .. / "));
+    }
+
+    /**
+     * Wraps a string in a reader that returns at most three characters per read,
+     * so symbols and word breaks straddle chunk boundaries.
+     */
+    private Reader trickle(String text) {
+        return new FilterReader(new StringReader(text)) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, 3));
+            }
+        };
+    }
+
+    @Test
+    void testStreamingMatchesInMemoryAcrossChunkBoundaries() throws IOException {
+        String input = generateRandomValidString(200);
+        String encoded = morseService.encode(input);
+
+        StringWriter encodedOut = new StringWriter();
+        morseService.encode(trickle(input), encodedOut);
+        assertEquals(encoded, encodedOut.toString());
+
+        StringWriter decodedOut = new StringWriter();
+        morseService.decode(trickle(encoded), decodedOut);
+        assertEquals(morseService.decode(encoded), decodedOut.toString());
+    }
+
+    @Test
+    void testBatchTranslatesEachItemInOrder() {
+        List<MorseRequest> requests = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String text = generateRandomValidString(10);
+            if (i % 2 == 0) {
+                requests.add(new MorseRequest(text, MorseRequest.Direction.ENCODE));
+                expected.add(morseService.encode(text));
+            } else {
+                String code = morseService.encode(text);
+                requests.add(new MorseRequest(code, MorseRequest.Direction.DECODE));
+                expected.add(morseService.decode(code));
+            }
+        }
+
+        List<MorseResponse> responses = morseCodeService.translateBatch(requests);
+
+        assertEquals(expected, responses.stream().map(MorseResponse::getResult).toList());
+    }
+
     @Test
     void testEncodeProducesQuestionMarkForInvalidChars() {
         String input = "HELLO!@#"; // contains invalid chars
@@ -63,6 +182,60 @@ class MorseServiceTest {
         assertTrue(decoded.contains("?"), "Decoding should produce '?' for unknown Morse sequences");
     }
 
+    @Test
+    void testPunctuationAndProsigns() {
+        assertEquals(".-.-.- --..-- ..--.. -..-. .--.-. -...-", morseService.encode(".,?/@="));
+        assertEquals("...-.- / .-.-.", morseService.encode("<sk> <AR>"));
+        assertEquals("CQ DE W1AW <SK>", morseService.decode(morseService.encode("cq de w1aw <SK>")));
+        assertEquals("<SOS>", morseService.decode("...---..."));
+    }
+
+    @Test
+    void testAlternateAlphabets() {
+        MorseAlphabet cyrillic = MorseAlphabet.forName("cyrillic");
+        MorseAlphabet greek = MorseAlphabet.forName("greek");
+
+        assertEquals("... --- ...", morseService.encode("сос", cyrillic));
+        assertEquals("ПРИВЕТ 73", morseService.decode(morseService.encode("Привет 73", cyrillic), cyrillic));
+        assertEquals("ΚΑΛΗΜΕΡΑ", morseService.decode(morseService.encode("Καλημέρα", greek), greek));
+        assertEquals(morseService.encode("SOS"), morseCodeService.encode("SOS", cyrillic), "Latin text still encodes");
+        assertThrows(IllegalArgumentException.class, () -> MorseAlphabet.forName("klingon"));
+    }
+
+    @Test
+    void testUnknownCharactersAreCounted() {
+        long encodedBefore = morseService.unknownEncodedCount();
+        long decodedBefore = morseService.unknownDecodedCount();
+
+        morseService.encode("A#B%");
+        morseService.decode("... ...... --- .-x");
+
+        assertEquals(2, morseService.unknownEncodedCount() - encodedBefore);
+        assertEquals(2, morseService.unknownDecodedCount() - decodedBefore);
+    }
+
+    @Test
+    void testCachedResultsAreCountedOncePerRequest() throws IOException {
+        String text = "A#B%" + System.nanoTime();
+        String code = "...... " + morseService.encode(text);
+        long encodedBefore = morseService.unknownEncodedCount();
+        long decodedBefore = morseService.unknownDecodedCount();
+
+        for (int i = 0; i < 2; i++) {
+            morseCodeService.encode(text, MorseAlphabet.defaultAlphabet());
+            morseCodeService.decode(code, MorseAlphabet.defaultAlphabet());
+            morseCodeService.generateMorseAudio(text, AudioSettings.DEFAULT);
+        }
+        assertEquals(8, morseService.unknownEncodedCount() - encodedBefore, "Hits count like misses");
+        assertEquals(6, morseService.unknownDecodedCount() - decodedBefore);
+
+        // A streamed response is sized first, which must not count
+        encodedBefore = morseService.unknownEncodedCount();
+        morseService.morseAudioLength(text, AudioSettings.DEFAULT);
+        morseService.writeMorseAudio(text, AudioSettings.DEFAULT, OutputStream.nullOutputStream());
+        assertEquals(2, morseService.unknownEncodedCount() - encodedBefore);
+    }
+
     @Test
     void testGenerateMorseAudioProducesValidWav() {
         String text = generateRandomValidString(10);
@@ -75,4 +248,274 @@ class MorseServiceTest {
         String header = new String(audioBytes, 0, 4);
         assertEquals("RIFF", header);
     }
+
+    @Test
+    void testGenerateMorseAudioHeaderMatchesDataLength() {
+        byte[] audioBytes = morseService.generateMorseAudio("SOS SOS");
+
+        ByteBuffer wav = ByteBuffer.wrap(audioBytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("data", new String(audioBytes, 36, 4));
+        assertEquals(audioBytes.length - 8, wav.getInt(4), "RIFF chunk size");
+        assertEquals(audioBytes.length - 44, wav.getInt(40), "data chunk size");
+    }
+
+    @Test
+    void testStreamedAudioMatchesInMemoryAudio() throws IOException {
+        String text = generateRandomValidString(30);
+        byte[] audioBytes = morseService.generateMorseAudio(text);
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        morseService.writeMorseAudio(text, AudioSettings.DEFAULT, streamed);
+
+        assertEquals(audioBytes.length, morseService.morseAudioLength(text, AudioSettings.DEFAULT));
+        assertArrayEquals(audioBytes, streamed.toByteArray());
+    }
+
+    @Test
+    void testAudioLengthMatchesRenderedAudio() {
+        AudioSettings[] variants = {
+                AudioSettings.DEFAULT,
+                new AudioSettings(20, 10, 600, 8000, 16, 5, AudioEncoding.PCM),
+                new AudioSettings(25, 25, 650, 8000, 8, 5, AudioEncoding.A_LAW)
+        };
+        String[] texts = {"", " ", "  LEADING AND  DOUBLE SPACES ", "<SK> ~ 73", generateRandomValidString(40)};
+        for (AudioSettings settings : variants) {
+            for (String text : texts) {
+                assertEquals(morseService.generateMorseAudio(text, settings).length,
+                        morseService.morseAudioLength(text, settings), "length of '" + text + "'");
+            }
+        }
+    }
+
+    @Test
+    void testLongGapsRenderInChunks() throws IOException {
+        // A one-WPM Farnsworth word gap is far longer than the chunk of silence gaps are copied from
+        AudioSettings slow = new AudioSettings(5, 1, 800, 44100, 16, 5, AudioEncoding.PCM);
+        byte[] audioBytes = morseService.generateMorseAudio("E E", slow);
+
+        int dot = slow.dotSamples() * 2;
+        int gap = slow.wordGapSamples() * 2;
+        assertTrue(gap > 1024 * 1024);
+        assertEquals(44 + dot + gap + dot, audioBytes.length);
+        for (int i = 44 + dot; i < 44 + dot + gap; i++) {
+            assertEquals(0, audioBytes[i], "silent at byte " + i);
+        }
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        morseService.writeMorseAudio("E E", slow, streamed);
+        assertArrayEquals(audioBytes, streamed.toByteArray());
+    }
+
+    @Test
+    void testAudioSettingsControlFormatAndTiming() {
+        AudioSettings telephony = new AudioSettings(20, 20, 600, 8000, 16, 5, AudioEncoding.PCM);
+        byte[] audioBytes = morseService.generateMorseAudio("PARIS", telephony);
+
+        ByteBuffer wav = ByteBuffer.wrap(audioBytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(8000, wav.getInt(24), "sample rate");
+        assertEquals(16, wav.getShort(34), "bits per sample");
+
+        // PARIS is 50 dot units including its trailing word gap, which is not rendered
+        int dotSamples = telephony.dotSamples();
+        assertEquals(480, dotSamples);
+        assertEquals((50 - 7) * dotSamples * 2, audioBytes.length - 44);
+
+        AudioSettings farnsworth = new AudioSettings(20, 10, 600, 8000, 16, 5, AudioEncoding.PCM);
+        assertTrue(morseService.morseAudioLength("PARIS PARIS", farnsworth)
+                > morseService.morseAudioLength("PARIS PARIS", telephony), "Farnsworth stretches gaps");
+        assertThrows(IllegalArgumentException.class, () -> new AudioSettings(20, 30, 600, 8000, 16, 5, AudioEncoding.PCM));
+    }
+
+    @Test
+    void testCompactAudioFormats() {
+        AudioSettings muLaw = new AudioSettings(12, 12, 800, 8000, 8, 5, AudioEncoding.MU_LAW);
+        byte[] audioBytes = morseService.generateMorseAudio("SOS", muLaw);
+
+        ByteBuffer wav = ByteBuffer.wrap(audioBytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(7, wav.getShort(20), "mu-law format tag");
+        assertEquals("data", new String(audioBytes, 50, 4));
+        assertEquals(audioBytes.length - 58, wav.getInt(54), "data chunk size");
+        assertEquals(audioBytes.length, morseService.morseAudioLength("SOS", muLaw));
+
+        // S = 3 dots, O = 3 dashes: 800-sample dots and 2400-sample dashes at 8 kHz
+        String events = morseService.generateToneEvents("SOS", muLaw);
+        assertTrue(events.endsWith("\"events\":[800,-800,800,-800,800,-2400,2400,-800,2400,-800,2400,"
+                + "-2400,800,-800,800,-800,800]}"), events);
+        assertTrue(events.length() * 100 < morseService.generateMorseAudio("SOS").length);
+    }
+
+    @Test
+    void testDecodeMorseAudioRoundTrips() throws IOException {
+        AudioSettings[] variants = {
+                AudioSettings.DEFAULT,
+                new AudioSettings(25, 25, 650, 8000, 8, 5, AudioEncoding.MU_LAW),
+                new AudioSettings(8, 8, 1000, 22050, 16, 5, AudioEncoding.PCM)
+        };
+        for (AudioSettings settings : variants) {
+            for (int i = 0; i < 5; i++) {
+                String text = generateRandomValidString(12 + i * 10);
+                byte[] audio = morseService.generateMorseAudio(text, settings);
+
+                StringWriter out = new StringWriter();
+                morseCodeService.decodeMorseAudio(new ByteArrayInputStream(audio), settings.frequency(), out);
+
+                assertEquals(morseService.decode(morseService.encode(text)), out.toString(),
+                        "Audio should decode back to " + text + " at " + settings.wpm() + " WPM");
+            }
+        }
+    }
+
+    @Test
+    void testDecodeMorseAudioRejectsHostileHeaders() throws IOException {
+        byte[] audio = morseService.generateMorseAudio("SOS");
+        ByteBuffer wav = ByteBuffer.wrap(audio).order(ByteOrder.LITTLE_ENDIAN);
+
+        // 20000 channels of 8 bits: a block larger than the read buffer
+        wav.putShort(22, (short) 20000).putShort(32, (short) 20000);
+        assertThrows(IllegalArgumentException.class, () -> morseCodeService.decodeMorseAudio(
+                new ByteArrayInputStream(audio, 0, 1024), 800, new StringWriter()));
+
+        // Mono, but a block align that disagrees with it
+        wav.putShort(22, (short) 1);
+        assertThrows(IllegalArgumentException.class, () -> morseCodeService.decodeMorseAudio(
+                new ByteArrayInputStream(audio, 0, 1024), 800, new StringWriter()));
+
+        // A truncated data chunk ends the stream rather than waiting for more
+        wav.putShort(32, (short) 1);
+        StringWriter out = new StringWriter();
+        morseCodeService.decodeMorseAudio(new ByteArrayInputStream(audio, 0, 1024), 800, out);
+        assertEquals("", out.toString());
+    }
+
+    @Test
+    void testParallelTranslationMatchesSequential() {
+        MorseAlphabet itu = MorseAlphabet.defaultAlphabet();
+        String[] words = {"SOS", "<SK>", "hello", "<AR>", " ", "  ", "é", "#"};
+        Random random = new Random(3);
+        for (int length : new int[]{1_000, 200_000, 1_000_000}) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < length) {
+                text.append(words[random.nextInt(words.length)]);
+            }
+            String encoded = morseService.encode(text.toString(), itu);
+            assertEquals(encoded, morseService.encodeParallel(text.toString(), itu));
+
+            String morse = "/ " + encoded.replace("/", "/ \n/") + " / /";
+            assertEquals(morseService.decode(morse, itu), morseService.decodeParallel(morse, itu));
+
+            String noSeparators = ".".repeat(length);
+            assertEquals(morseService.decode(noSeparators, itu), morseService.decodeParallel(noSeparators, itu));
+        }
+    }
+
+    @Test
+    void testByteTranslationMatchesStrings() {
+        String[] inputs = {"", "Hello, World!", "sos <sk> <ar", "Ελλάδα привет", "emoji \uD83D\uDE00 #", "  a  b  "};
+        for (String name : new String[]{"itu", "cyrillic", "greek"}) {
+            MorseAlphabet alphabet = MorseAlphabet.forName(name);
+            for (String input : inputs) {
+                String morse = morseService.encode(input, alphabet);
+                byte[] encoded = morseCodeService.encode(input.getBytes(StandardCharsets.UTF_8), alphabet);
+                assertEquals(morse, new String(encoded, StandardCharsets.US_ASCII), input);
+
+                byte[] decoded = morseCodeService.decode(encoded, alphabet);
+                assertEquals(morseService.decode(morse, alphabet), new String(decoded, StandardCharsets.UTF_8), input);
+            }
+        }
+
+        // Direct buffers and non-zero positions read only the remaining bytes
+        ByteBuffer direct = ByteBuffer.allocateDirect(16).put("xxSOS".getBytes(StandardCharsets.US_ASCII)).flip();
+        direct.position(2);
+        ByteBuffer morse = morseService.encode(direct, MorseAlphabet.defaultAlphabet());
+        assertEquals(2, direct.position());
+        assertEquals("... --- ...", StandardCharsets.US_ASCII.decode(morse).toString());
+
+        // Malformed UTF-8 encodes each bad byte as an unknown character
+        byte[] malformed = {'A', (byte) 0xC3, 'B', (byte) 0x80};
+        assertEquals(".- ? -... ?", new String(morseCodeService.encode(malformed, MorseAlphabet.defaultAlphabet()),
+                StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testDecodeTimingsFollowsDriftingHandKeying() throws IOException {
+        Random random = new Random(11);
+        for (int run = 0; run < 10; run++) {
+            String text = generateRandomValidString(40).trim().replaceAll(" +", " ");
+            String morse = morseService.encode(text);
+
+            // Speed drifts from 12 to 28 WPM over the message; every element and gap is off by up to 20%
+            StringBuilder events = new StringBuilder();
+            String[] words = morse.split(" / ");
+            int elements = morse.replaceAll("[^.-]", "").length();
+            int keyed = 0;
+            for (int w = 0; w < words.length; w++) {
+                String[] letters = words[w].split(" ");
+                for (int l = 0; l < letters.length; l++) {
+                    for (int e = 0; e < letters[l].length(); e++) {
+                        double dot = MorseTimingDecoder.dotMillis(12) * (1 - 0.57 * keyed++ / elements);
+                        int gap = e < letters[l].length() - 1 ? 1 : l < letters.length - 1 ? 3 : 7;
+                        events.append(Math.round((letters[l].charAt(e) == '-' ? 3 : 1) * dot * jitter(random)))
+                                .append(',')
+                                .append(-Math.round(gap * dot * jitter(random)))
+                                .append(',');
+                    }
+                }
+            }
+
+            StringWriter out = new StringWriter();
+            morseCodeService.decodeTimings(new StringReader("[" + events + "0]"), 20, out,
+                    MorseAlphabet.defaultAlphabet());
+            assertEquals(text, out.toString());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> morseCodeService.decodeTimings(
+                new StringReader("60 -60 abc"), 20, new StringWriter(), MorseAlphabet.defaultAlphabet()));
+    }
+
+    @Test
+    void testDecodeTimingsIgnoresGlitches() throws IOException {
+        String text = "SEE HIS SISTER";
+        String morse = morseService.encode(text);
+
+        // 60 ms dots; an 8 ms blip before the message and inside a letter gap, element gap and word gap
+        StringBuilder events = new StringBuilder("8,-400,");
+        int elements = 0;
+        for (int i = 0; i < morse.length(); i++) {
+            char c = morse.charAt(i);
+            if (c == '.' || c == '-') {
+                events.append(c == '.' ? 60 : 180).append(',');
+                boolean last = i + 1 == morse.length() || morse.charAt(i + 1) == ' ';
+                String glitch = ++elements % 5 == 0 ? ",8," : ",";
+                if (last && i + 1 < morse.length() && morse.charAt(i + 2) == '/') {
+                    events.append("-200").append(glitch).append("-220,");
+                    i += 3;
+                } else if (last) {
+                    events.append("-90").append(glitch).append("-90,");
+                    i++;
+                } else {
+                    events.append("-30").append(glitch).append("-30,");
+                }
+            }
+        }
+
+        StringWriter out = new StringWriter();
+        morseCodeService.decodeTimings(new StringReader("[" + events + "0]"), 20, out,
+                MorseAlphabet.defaultAlphabet());
+        assertEquals(text, out.toString());
+    }
+
+    @Test
+    void testDecodeTimingsIgnoresEmptySilences() throws IOException {
+        StringBuilder events = new StringBuilder("[");
+        for (int i = 0; i < 40; i++) {
+            events.append("60,-0,-0,-0,-60,");
+        }
+        StringWriter out = new StringWriter();
+        morseCodeService.decodeTimings(new StringReader(events + "0]"), 20, out, MorseAlphabet.defaultAlphabet());
+        assertEquals("?", out.toString());
+    }
+
+    private static double jitter(Random random) {
+        return 0.8 + 0.4 * random.nextDouble();
+    }
 }